@@ -0,0 +1,148 @@
+package org.example.frontend.diagnostics;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.wicket.Component;
+import org.apache.wicket.MetaDataKey;
+import org.apache.wicket.request.cycle.AbstractRequestCycleListener;
+import org.apache.wicket.request.cycle.RequestCycle;
+import org.hippoecm.frontend.plugin.IPluginContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Logs how many bytes a component and its children add to the page store. The component is serialized at the end of
+ * the request, after the page has been detached and before it is stored, the same way the page store would. Other
+ * components of the page and the shared plugin context are left out, so the size is what the instance itself costs.
+ * Only active when this class logs at debug level.
+ */
+public final class SerializedSizeReporter extends AbstractRequestCycleListener {
+
+    private static final Logger log = LoggerFactory.getLogger(SerializedSizeReporter.class);
+
+    private static final Map<Class<?>, Statistics> statistics = new ConcurrentHashMap<>();
+
+    private static final MetaDataKey<Set<Component>> MEASURED = new MetaDataKey<Set<Component>>() {
+        private static final long serialVersionUID = 1L;
+    };
+
+    private final Component component;
+
+    private SerializedSizeReporter(final Component component) {
+        this.component = component;
+    }
+
+    /**
+     * Measures the component at the end of the current request when debug logging is enabled. Call from onDetach;
+     * a component that is detached more than once in a request is measured once.
+     */
+    public static void measureOnDetach(final Component component) {
+        final RequestCycle requestCycle = RequestCycle.get();
+        if (!log.isDebugEnabled() || requestCycle == null) {
+            return;
+        }
+        Set<Component> measured = requestCycle.getMetaData(MEASURED);
+        if (measured == null) {
+            measured = Collections.newSetFromMap(new IdentityHashMap<>());
+            requestCycle.setMetaData(MEASURED, measured);
+        }
+        if (measured.add(component)) {
+            requestCycle.getListeners().add(new SerializedSizeReporter(component));
+        }
+    }
+
+    /**
+     * Returns the number of bytes the component and its children serialize to.
+     */
+    public static long measure(final Component component) throws IOException {
+        final CountingOutputStream counter = new CountingOutputStream();
+        try (ObjectOutputStream out = new ComponentOutputStream(counter, component)) {
+            out.writeObject(component);
+        }
+        return counter.count;
+    }
+
+    @Override
+    public void onDetach(final RequestCycle cycle) {
+        try {
+            final long size = measure(component);
+            final Statistics stats = statistics.computeIfAbsent(component.getClass(), c -> new Statistics());
+            stats.add(size);
+            log.debug("{} {} serializes to {} bytes ({})", component.getClass().getSimpleName(),
+                    component.getPageRelativePath(), size, stats);
+        } catch (IOException | RuntimeException e) {
+            log.debug("Could not serialize " + component.getPageRelativePath(), e);
+        }
+    }
+
+    private static final class ComponentOutputStream extends ObjectOutputStream {
+
+        private final Component root;
+
+        private ComponentOutputStream(final OutputStream out, final Component root) throws IOException {
+            super(out);
+            this.root = root;
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(final Object obj) {
+            if (obj instanceof IPluginContext) {
+                return null;
+            }
+            if (obj instanceof Component && !isInSubtree((Component) obj)) {
+                return null;
+            }
+            return obj;
+        }
+
+        private boolean isInSubtree(final Component component) {
+            for (Component current = component; current != null; current = current.getParent()) {
+                if (current == root) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(final int b) {
+            count++;
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) {
+            count += len;
+        }
+    }
+
+    private static final class Statistics {
+
+        private long count;
+        private long total;
+        private long max;
+
+        private synchronized void add(final long size) {
+            count++;
+            total += size;
+            max = Math.max(max, size);
+        }
+
+        @Override
+        public synchronized String toString() {
+            return "instances " + count + ", average " + (count > 0 ? total / count : 0) + ", max " + max;
+        }
+    }
+}
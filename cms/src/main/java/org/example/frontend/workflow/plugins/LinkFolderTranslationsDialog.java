@@ -0,0 +1,184 @@
+package org.example.frontend.workflow.plugins;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.jcr.RepositoryException;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.wicket.ajax.AbstractAjaxTimerBehavior;
+import org.apache.wicket.ajax.AjaxRequestTarget;
+import org.apache.wicket.markup.html.basic.Label;
+import org.apache.wicket.markup.html.list.ListItem;
+import org.apache.wicket.markup.html.list.ListView;
+import org.apache.wicket.model.IModel;
+import org.apache.wicket.model.LoadableDetachableModel;
+import org.apache.wicket.model.StringResourceModel;
+import org.apache.wicket.request.cycle.RequestCycle;
+import org.apache.wicket.util.time.Duration;
+import org.example.repository.translations.FolderLinkJob;
+import org.example.repository.translations.FolderLinkService;
+import org.example.repository.translations.FolderTranslationLinker;
+import org.example.repository.translations.FolderTranslationLinker.Pairing;
+import org.example.repository.translations.TranslationConflict;
+import org.hippoecm.frontend.dialog.AbstractDialog;
+import org.hippoecm.frontend.session.UserSession;
+import org.onehippo.cms7.services.HippoServiceRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Previews the documents of a folder that will be linked with their counterparts and links them all on ok. Linking
+ * runs in the background in the repository, see {@link FolderLinkService}; the dialog stays open and polls for the
+ * progress. Closing the dialog does not stop it.
+ */
+public class LinkFolderTranslationsDialog extends AbstractDialog<Void> {
+
+    private static final long serialVersionUID = 1L;
+    private static Logger log = LoggerFactory.getLogger(LinkFolderTranslationsDialog.class);
+    private static final int PREVIEW_SIZE = 100;
+    private static final Duration POLL_INTERVAL = Duration.seconds(1);
+
+    private final FolderTranslationLinker linker;
+    private final List<Pairing> pairings;
+    private final Label progress;
+    private String jobId;
+    private Integer linked;
+    private boolean failed;
+
+    public LinkFolderTranslationsDialog(final FolderTranslationLinker linker, final List<Pairing> pairings) {
+        this.linker = linker;
+        this.pairings = pairings;
+
+        final long pending = count(pairings, Pairing.Status.PENDING);
+        final long duplicates = count(pairings, Pairing.Status.DUPLICATE_KEY);
+        final long conflicts = count(pairings, Pairing.Status.CONFLICT);
+        add(new Label("summary", new StringResourceModel("dialog.summary", this, null, pairings.size(), pending, duplicates, conflicts)));
+
+        final List<Pairing> preview = new ArrayList<>(pairings.size());
+        pairings.stream().filter(LinkFolderTranslationsDialog::isSkipped).forEach(preview::add);
+        pairings.stream().filter(pairing -> !isSkipped(pairing)).forEach(preview::add);
+        add(new ListView<Pairing>("pairings", new ArrayList<>(preview.subList(0, Math.min(PREVIEW_SIZE, preview.size())))) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void populateItem(final ListItem<Pairing> item) {
+                final Pairing pairing = item.getModelObject();
+                item.add(new Label("source", pairing.getSourcePath()));
+                item.add(new Label("target", pairing.getTargetPath()));
+                final TranslationConflict conflict = pairing.getConflict();
+                item.add(new Label("status", new StringResourceModel(
+                        "dialog.status." + pairing.getStatus().name().toLowerCase().replace("_", ""), this, null,
+                        conflict != null ? StringUtils.join(conflict.getConflictingPaths(), ", ") : null)));
+            }
+        });
+
+        progress = new Label("progress", new LoadableDetachableModel<String>() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected String load() {
+                if (failed) {
+                    return getString("dialog.error");
+                }
+                if (linked != null) {
+                    return new StringResourceModel("dialog.done", LinkFolderTranslationsDialog.this, null, linked).getObject();
+                }
+                final FolderLinkJob job = getJob();
+                if (job == null) {
+                    return null;
+                }
+                return new StringResourceModel("dialog.progress", LinkFolderTranslationsDialog.this, null,
+                        job.getProcessed(), job.getTotal()).getObject();
+            }
+        });
+        progress.setOutputMarkupId(true);
+        add(progress);
+        setOkEnabled(pending > 0);
+    }
+
+    @Override
+    public IModel<String> getTitle() {
+        return new StringResourceModel("dialog.title", this, null);
+    }
+
+    /**
+     * Keeps the dialog open while the documents are linked.
+     */
+    @Override
+    protected void handleSubmit() {
+        onOk();
+    }
+
+    @Override
+    protected void onOk() {
+        if (jobId != null) {
+            return;
+        }
+        final FolderLinkService service = HippoServiceRegistry.getService(FolderLinkService.class);
+        if (service == null) {
+            log.error("Cannot link folder translations, the folder link service is not available");
+            error(getString("dialog.error"));
+            return;
+        }
+        try {
+            jobId = service.start(UserSession.get().getJcrSession().getUserID(), linker, pairings);
+        } catch (RejectedExecutionException e) {
+            log.warn("Cannot link folder translations now, too many folders are being linked");
+            error(getString("dialog.busy"));
+            return;
+        } catch (RepositoryException e) {
+            log.error("Cannot open a session to link folder translations", e);
+            error(getString("dialog.error"));
+            return;
+        }
+
+        setOkEnabled(false);
+        progress.add(new AbstractAjaxTimerBehavior(POLL_INTERVAL) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void onTimer(final AjaxRequestTarget target) {
+                final FolderLinkJob running = getJob();
+                if (running == null || running.isDone()) {
+                    removeJob();
+                    linked = running != null ? running.getLinked() : 0;
+                    failed = running != null && running.isFailed();
+                    stop(target);
+                }
+                target.add(progress);
+            }
+        });
+        final AjaxRequestTarget target = RequestCycle.get().find(AjaxRequestTarget.class);
+        if (target != null) {
+            target.add(progress);
+        }
+    }
+
+    @Override
+    public void onClose() {
+        removeJob();
+        super.onClose();
+    }
+
+    private FolderLinkJob getJob() {
+        final FolderLinkService service = HippoServiceRegistry.getService(FolderLinkService.class);
+        return jobId != null && service != null ? service.getJob(jobId) : null;
+    }
+
+    private void removeJob() {
+        final FolderLinkService service = HippoServiceRegistry.getService(FolderLinkService.class);
+        if (jobId != null && service != null) {
+            service.remove(jobId);
+        }
+    }
+
+    private static boolean isSkipped(final Pairing pairing) {
+        return pairing.getStatus() == Pairing.Status.DUPLICATE_KEY || pairing.getStatus() == Pairing.Status.CONFLICT;
+    }
+
+    private static long count(final List<Pairing> pairings, final Pairing.Status status) {
+        return pairings.stream().filter(pairing -> pairing.getStatus() == status).count();
+    }
+}
@@ -0,0 +1,108 @@
+package org.example.frontend.workflow.plugins;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+
+import org.apache.wicket.Component;
+import org.apache.wicket.model.StringResourceModel;
+import org.example.repository.translations.FolderTranslationLinker;
+import org.example.repository.translations.TranslationGroupService;
+import org.hippoecm.addon.workflow.StdWorkflow;
+import org.hippoecm.addon.workflow.WorkflowDescriptorModel;
+import org.hippoecm.frontend.dialog.IDialogService.Dialog;
+import org.hippoecm.frontend.plugin.IPluginContext;
+import org.hippoecm.frontend.plugin.config.IPluginConfig;
+import org.hippoecm.frontend.plugins.standards.icon.HippoIcon;
+import org.hippoecm.frontend.service.render.RenderPlugin;
+import org.hippoecm.frontend.skin.Icon;
+import org.hippoecm.frontend.translation.ILocaleProvider;
+import org.hippoecm.frontend.translation.ILocaleProvider.HippoLocale;
+import org.hippoecm.frontend.translation.TranslationUtil;
+import org.hippoecm.repository.translation.HippoTranslatedNode;
+import org.hippoecm.repository.translation.TranslationWorkflow;
+import org.onehippo.cms7.services.HippoServiceRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public final class LinkFolderTranslationsWorkflowPlugin extends RenderPlugin {
+
+    private static final long serialVersionUID = 1L;
+    private static Logger log = LoggerFactory.getLogger(LinkFolderTranslationsWorkflowPlugin.class);
+    private static final String KEY_PROPERTY = "key.property";
+    private static final String BATCH_SIZE = "batch.size";
+    private static final int DEFAULT_BATCH_SIZE = 100;
+
+    public LinkFolderTranslationsWorkflowPlugin(IPluginContext context, IPluginConfig config) {
+        super(context, config);
+
+        try {
+            Node folderNode = getFolderNode();
+            if (folderNode == null || !TranslationUtil.isNtTranslated(folderNode)) {
+                return;
+            }
+        } catch (RepositoryException e) {
+            log.warn("Could not determine translations status of folder", e);
+            return;
+        }
+
+        add(new StdWorkflow<TranslationWorkflow>("linkFolder",
+                new StringResourceModel("plugin.menuitem.linkfolder.title", this, null),
+                context, (WorkflowDescriptorModel) getDefaultModel()) {
+
+            @Override
+            protected Component getIcon(final String id) {
+                return HippoIcon.fromSprite(id, Icon.TRANSLATE);
+            }
+
+            @Override
+            protected Dialog createRequestDialog() {
+                try {
+                    return new LinkFolderTranslationsDialog(createLinker(), computePairings());
+                } catch (RepositoryException e) {
+                    log.error("cannot compute the documents to link", e);
+                }
+                return null;
+            }
+        });
+    }
+
+    private FolderTranslationLinker createLinker() {
+        return new FolderTranslationLinker(getPluginConfig().getString(KEY_PROPERTY),
+                getPluginConfig().getInt(BATCH_SIZE, DEFAULT_BATCH_SIZE));
+    }
+
+    private List<FolderTranslationLinker.Pairing> computePairings() throws RepositoryException {
+        final List<FolderTranslationLinker.Pairing> pairings = new ArrayList<>();
+        final Node folderNode = getFolderNode();
+        final HippoTranslatedNode translatedFolder = new HippoTranslatedNode(folderNode);
+        final String folderLocale = translatedFolder.getLocale();
+        final FolderTranslationLinker linker = createLinker();
+        final TranslationGroupService groupService = HippoServiceRegistry.getService(TranslationGroupService.class);
+
+        for (HippoLocale locale : getLocaleProvider().getLocales()) {
+            if (!locale.getName().equals(folderLocale) && translatedFolder.hasTranslation(locale.getName())) {
+                final Node counterpartFolder = translatedFolder.getTranslation(locale.getName());
+                log.debug("pair documents of {} with {}", folderNode.getPath(), counterpartFolder.getPath());
+                pairings.addAll(linker.computePairings(folderNode, counterpartFolder, groupService));
+            }
+        }
+        return pairings;
+    }
+
+    private Node getFolderNode() throws RepositoryException {
+        if (getDefaultModel() instanceof WorkflowDescriptorModel) {
+            return ((WorkflowDescriptorModel) getDefaultModel()).getNode();
+        }
+        return null;
+    }
+
+    protected ILocaleProvider getLocaleProvider() {
+        return getPluginContext().getService(
+                getPluginConfig().getString(ILocaleProvider.SERVICE_ID, ILocaleProvider.class.getName()),
+                ILocaleProvider.class);
+    }
+
+}
@@ -4,6 +4,7 @@ import java.io.Serializable;
 import java.rmi.RemoteException;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -23,6 +24,7 @@ import org.apache.wicket.markup.html.basic.Label;
 import org.apache.wicket.markup.html.panel.EmptyPanel;
 import org.apache.wicket.markup.html.panel.Fragment;
 import org.apache.wicket.markup.repeater.Item;
+import org.apache.wicket.markup.repeater.RepeatingView;
 import org.apache.wicket.markup.repeater.data.DataView;
 import org.apache.wicket.markup.repeater.data.IDataProvider;
 import org.apache.wicket.model.IChainingModel;
@@ -30,6 +32,13 @@ import org.apache.wicket.model.IModel;
 import org.apache.wicket.model.LoadableDetachableModel;
 import org.apache.wicket.model.StringResourceModel;
 import org.apache.wicket.request.resource.ResourceReference;
+import org.example.frontend.diagnostics.SerializedSizeReporter;
+import org.example.repository.translations.TranslatedDocuments;
+import org.example.repository.translations.TranslationConflict;
+import org.example.repository.translations.TranslationGroupService;
+import org.example.repository.translations.TranslationLinkTiming;
+import org.example.repository.translations.TranslationSuggestionEngine;
+import org.example.repository.translations.TranslationSuggestionService;
 import org.hippoecm.addon.workflow.MenuDescription;
 import org.hippoecm.addon.workflow.StdWorkflow;
 import org.hippoecm.addon.workflow.WorkflowDescriptorModel;
@@ -60,6 +69,7 @@ import org.hippoecm.repository.translation.HippoTranslatedNode;
 import org.hippoecm.repository.translation.HippoTranslationNodeType;
 import org.hippoecm.repository.translation.TranslationWorkflow;
 import org.hippoecm.repository.util.JcrUtils;
+import org.onehippo.cms7.services.HippoServiceRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -70,11 +80,12 @@ public final class LinkTranslationsWorkflowPlugin extends RenderPlugin {
     private static final String CLUSTER_NAME = "cluster.name";
     private static final String LINKPICKER_CLUSTER_NAME= "linkpicker.cluster.name";
     private static final String DEFAULT_CLUSTER = "cms-pickers/documents-only";
+    private static final int MAX_SUGGESTIONS = 3;
 
 
     private final IModel<Boolean> canTranslateModel;
 
-    private final DocumentTranslationProvider translationProvider;
+    private final IModel<Set<String>> translatedLocalesModel;
 
     public LinkTranslationsWorkflowPlugin(IPluginContext context, IPluginConfig config) {
         super(context, config);
@@ -83,14 +94,14 @@ public final class LinkTranslationsWorkflowPlugin extends RenderPlugin {
         final ILocaleProvider localeProvider = getLocaleProvider();
 
         Node documentNode = null;
-        DocumentTranslationProvider docTranslationProvider = null;
         try {
             documentNode = getDocumentNode();
-            docTranslationProvider = new DocumentTranslationProvider(new JcrNodeModel(documentNode), localeProvider);
         } catch (RepositoryException e) {
             log.warn("Unable to find document node", e);
         }
-        translationProvider = docTranslationProvider;
+
+        // only the names of the translated locales are kept between requests, the translations are looked up again
+        translatedLocalesModel = new TranslatedLocalesModel();
 
         // lazily determine whether the document can be translated
         canTranslateModel = new LoadableDetachableModel<Boolean>() {
@@ -138,7 +149,7 @@ public final class LinkTranslationsWorkflowPlugin extends RenderPlugin {
 
             @Override
             public MarkupContainer getContent() {
-                final LocalesToTranslateProvider localesToTranslateProvider = new LocalesToTranslateProvider(localeProvider);
+                final LocalesToTranslateProvider localesToTranslateProvider = new LocalesToTranslateProvider();
 
                 DataView<HippoLocale> dataView = new DataView<HippoLocale>("languages", localesToTranslateProvider) {
                     private static final long serialVersionUID = 1L;
@@ -159,7 +170,7 @@ public final class LinkTranslationsWorkflowPlugin extends RenderPlugin {
                                 protected void execute() throws Exception {
                                     log.debug("remove translation id from {}", getDocumentNode().getPath());
                                     String uuid = UUID.randomUUID().toString();
-                                    setTranslationId(getDocumentNode().getParent(), uuid);
+                                    setTranslationId(getDocumentNode().getParent(), uuid, null);
                                     redraw();
                                 }
 
@@ -180,20 +191,26 @@ public final class LinkTranslationsWorkflowPlugin extends RenderPlugin {
 
                     @Override
                     protected void populateItem(Item<HippoLocale> item) {
-                        final HippoLocale locale = item.getModelObject();
-                        final String language = locale.getName();
+                        final IModel<HippoLocale> localeModel = item.getModel();
+                        final String language = localeModel.getObject().getName();
 
                         if (!hasLocale(language)) {
                             item.add(new TranslationAction("language", new LoadableDetachableModel<String>() {
 
                                 @Override
                                 protected String load() {
-                                    return locale.getDisplayName(getLocale()) + "...";
+                                    return localeModel.getObject().getDisplayName(getLocale()) + "...";
                                 }
 
                             }, item.getModel(), language
                             ));
                         }
+
+                        final RepeatingView suggestionsView = new RepeatingView("suggestions");
+                        for (TranslationSuggestionEngine.Suggestion suggestion : getSuggestions(language)) {
+                            suggestionsView.add(new SuggestionAction(suggestionsView.newChildId(), suggestion.getHandleId(), language));
+                        }
+                        item.add(suggestionsView);
                     }
 
                     @Override
@@ -215,7 +232,7 @@ public final class LinkTranslationsWorkflowPlugin extends RenderPlugin {
     }
 
     public boolean hasLocale(String locale) {
-        return translationProvider.contains(locale);
+        return translatedLocalesModel.getObject().contains(locale);
     }
 
     @SuppressWarnings("unchecked")
@@ -235,6 +252,18 @@ public final class LinkTranslationsWorkflowPlugin extends RenderPlugin {
         return Collections.emptySet();
     }
 
+    private List<TranslationSuggestionEngine.Suggestion> getSuggestions(final String language) {
+        final TranslationSuggestionService suggestionService = HippoServiceRegistry.getService(TranslationSuggestionService.class);
+        if (suggestionService != null) {
+            try {
+                return suggestionService.getSuggestions(getDocumentNode().getParent().getIdentifier(), language, MAX_SUGGESTIONS);
+            } catch (RepositoryException e) {
+                log.warn("Could not retrieve translation suggestions", e);
+            }
+        }
+        return Collections.emptyList();
+    }
+
     private Node getDocumentNode() throws RepositoryException {
         if (getDefaultModel() instanceof WorkflowDescriptorModel) {
             return ((WorkflowDescriptorModel) getDefaultModel()).getNode();
@@ -258,11 +287,36 @@ public final class LinkTranslationsWorkflowPlugin extends RenderPlugin {
 
     @Override
     protected void onDetach() {
-        if (translationProvider != null) {
-            translationProvider.detach();
-        }
+        translatedLocalesModel.detach();
         this.canTranslateModel.detach();
         super.onDetach();
+        SerializedSizeReporter.measureOnDetach(this);
+    }
+
+    private final class TranslatedLocalesModel extends LoadableDetachableModel<Set<String>> {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected Set<String> load() {
+            final Set<String> translatedLocales = new HashSet<>();
+            try {
+                final Node documentNode = getDocumentNode();
+                final ILocaleProvider localeProvider = getLocaleProvider();
+                if (documentNode != null && localeProvider != null) {
+                    final DocumentTranslationProvider translationProvider =
+                            new DocumentTranslationProvider(new JcrNodeModel(documentNode), localeProvider);
+                    for (HippoLocale locale : localeProvider.getLocales()) {
+                        if (translationProvider.contains(locale.getName())) {
+                            translatedLocales.add(locale.getName());
+                        }
+                    }
+                    translationProvider.detach();
+                }
+            } catch (RepositoryException e) {
+                log.warn("Unable to determine the translations of the document", e);
+            }
+            return translatedLocales;
+        }
     }
 
     private final class LanguageModel extends LoadableDetachableModel<String> {
@@ -284,15 +338,11 @@ public final class LinkTranslationsWorkflowPlugin extends RenderPlugin {
     }
 
     private final class LocalesToTranslateProvider implements IDataProvider<HippoLocale> {
-        private final ILocaleProvider localeProvider;
         private static final long serialVersionUID = 1L;
         private transient List<HippoLocale> availableLocales;
 
-        private LocalesToTranslateProvider(ILocaleProvider localeProvider) {
-            this.localeProvider = localeProvider;
-        }
-
         private void load() {
+            final ILocaleProvider localeProvider = getLocaleProvider();
             availableLocales = new LinkedList<>();
             for (String language : getLanguagesToTranslate()) {
                 availableLocales.add(localeProvider.getLocale(language));
@@ -316,7 +366,7 @@ public final class LinkTranslationsWorkflowPlugin extends RenderPlugin {
 
                 @Override
                 protected HippoLocale load() {
-                    return localeProvider.getLocale(id);
+                    return getLocaleProvider().getLocale(id);
                 }
             };
         }
@@ -406,13 +456,22 @@ public final class LinkTranslationsWorkflowPlugin extends RenderPlugin {
 
             final IPluginConfig dialogConfig = fromWorkflowDescriptorModel(getPluginConfig(), getModel());
 
+            // the picker model is stored with the dialog, so it keeps the path of the folder instead of the node
+            final String translatedFolderPath;
             if (closestTranslatedFolder != null) {
-                dialogConfig.put(NodePickerControllerSettings.BASE_UUID, closestTranslatedFolder.getTranslation(language).getIdentifier());
+                Node translatedFolder = closestTranslatedFolder.getTranslation(language);
+                dialogConfig.put(NodePickerControllerSettings.BASE_UUID, translatedFolder.getIdentifier());
+                translatedFolderPath = translatedFolder.getPath();
+            } else {
+                translatedFolderPath = null;
             }
 
+            final List<TranslationSuggestionEngine.Suggestion> suggestions = getSuggestions(language);
+            final String suggestedHandleId = suggestions.isEmpty() ? null : suggestions.get(0).getHandleId();
+
             final IChainingModel<String> linkPickerModel = new IChainingModel<String>() {
 
-                private String object;
+                private String object = suggestedHandleId;
                 private IModel<?> model;
 
                 @Override
@@ -444,18 +503,29 @@ public final class LinkTranslationsWorkflowPlugin extends RenderPlugin {
 
                 private void updateTranslations(final String uuid)  {
                     javax.jcr.Session session = UserSession.get().getJcrSession();
+                    TranslationLinkTiming timing = new TranslationLinkTiming("updateTranslations");
+                    timing.begin();
+                    timing.setSubjectId(uuid);
+                    timing.setLocale(language);
                     try {
+                        long start = System.nanoTime();
                         Node selectedDocumentNodeHandle = session.getNodeByIdentifier(uuid);
+                        timing.addLookup(start);
                         if (canUpdateTranslation(selectedDocumentNodeHandle)) {
+                            start = System.nanoTime();
                             Node currentDocumentNodeVariant = getDocumentNode();
                             String translationId = currentDocumentNodeVariant.getProperty(HippoTranslationNodeType.ID).getString();
+                            timing.addSourceLookup(start);
+                            timing.setDocumentType(currentDocumentNodeVariant.getPrimaryNodeType().getName());
                             log.debug("link translations of {} with {}", selectedDocumentNodeHandle.getPath(), currentDocumentNodeVariant.getPath());
-                            setTranslationId(selectedDocumentNodeHandle, translationId);
+                            linkTranslation(selectedDocumentNodeHandle, language, translationId, currentDocumentNodeVariant.getParent().getIdentifier(), timing);
                         } else {
                             log.warn("cannot link translations between {} and {}",selectedDocumentNodeHandle.getPath(), getDocumentNode().getPath());
                         }
                     } catch (RepositoryException e) {
                         log.error("Error linking translation with "+uuid, e);
+                    } finally {
+                        timing.commit();
                     }
                 }
 
@@ -466,8 +536,8 @@ public final class LinkTranslationsWorkflowPlugin extends RenderPlugin {
                     HippoTranslatedNode selectedDocumentTranslatedNode = new HippoTranslatedNode(selectedDocumentVariant);
 
                     return
-                            (   closestTranslatedFolder == null ||
-                                    StringUtils.startsWith(selectedDocumentVariant.getPath(), closestTranslatedFolder.getTranslation(language).getPath())
+                            (   translatedFolderPath == null ||
+                                    StringUtils.startsWith(selectedDocumentVariant.getPath(), translatedFolderPath)
                             )
                                     && language.equals(selectedDocumentTranslatedNode.getLocale());
                 }
@@ -502,18 +572,180 @@ public final class LinkTranslationsWorkflowPlugin extends RenderPlugin {
 
     }
 
-    private void setTranslationId(Node handleNode, String translationId) {
+    /**
+     * Title of a suggested translation, reloaded from the suggestion service so that only the handle id and locale
+     * are kept in the page.
+     */
+    private final class SuggestionTitleModel extends LoadableDetachableModel<String> {
+        private static final long serialVersionUID = 1L;
+
+        private final String handleId;
+        private final String locale;
+
+        private SuggestionTitleModel(String handleId, String locale) {
+            this.handleId = handleId;
+            this.locale = locale;
+        }
+
+        @Override
+        protected String load() {
+            for (TranslationSuggestionEngine.Suggestion suggestion : getSuggestions(locale)) {
+                if (suggestion.getHandleId().equals(handleId)) {
+                    return new StringResourceModel("plugin.menuitem.suggestion.title", LinkTranslationsWorkflowPlugin.this, null,
+                            suggestion.getTitle(), Math.round(suggestion.getConfidence() * 100)).getString();
+                }
+            }
+            return null;
+        }
+    }
+
+    private final class SuggestionAction extends StdWorkflow<TranslationWorkflow> {
+        private static final long serialVersionUID = 1L;
+
+        private final String handleId;
+        private final String locale;
+        private final IModel<String> title;
+
+        private SuggestionAction(String id, String handleId, String locale) {
+            this(id, handleId, locale, new SuggestionTitleModel(handleId, locale));
+        }
+
+        private SuggestionAction(String id, String handleId, String locale, IModel<String> title) {
+            super(id, title, getPluginContext(), (WorkflowDescriptorModel) LinkTranslationsWorkflowPlugin.this.getModel());
+            this.handleId = handleId;
+            this.locale = locale;
+            this.title = title;
+        }
+
+        @Override
+        public boolean isVisible() {
+            if (super.isVisible() && findPage() != null) {
+                return canTranslateModel.getObject() && title.getObject() != null;
+            }
+            return false;
+        }
+
+        @Override
+        protected Component getIcon(final String id) {
+            return HippoIcon.fromSprite(id, Icon.TRANSLATE);
+        }
+
+        @Override
+        protected IModel<String> getTitle() {
+            return title;
+        }
+
+        @Override
+        protected void onDetach() {
+            title.detach();
+            super.onDetach();
+        }
+
+        @Override
+        protected void execute() throws Exception {
+            TranslationLinkTiming timing = new TranslationLinkTiming("setTranslationId");
+            timing.begin();
+            timing.setSubjectId(handleId);
+            timing.setLocale(locale);
+            try {
+                long start = System.nanoTime();
+                Node currentDocumentNodeVariant = getDocumentNode();
+                String translationId = currentDocumentNodeVariant.getProperty(HippoTranslationNodeType.ID).getString();
+                timing.addSourceLookup(start);
+                timing.setDocumentType(currentDocumentNodeVariant.getPrimaryNodeType().getName());
+                start = System.nanoTime();
+                Node suggestedDocumentNodeHandle = UserSession.get().getJcrSession().getNodeByIdentifier(handleId);
+                timing.addLookup(start);
+                log.debug("link suggested translation {} with {}", suggestedDocumentNodeHandle.getPath(), currentDocumentNodeVariant.getPath());
+                linkTranslation(suggestedDocumentNodeHandle, locale, translationId, currentDocumentNodeVariant.getParent().getIdentifier(), timing);
+            } finally {
+                timing.commit();
+            }
+            redraw();
+        }
+    }
+
+    /**
+     * Links the handle into the translation group, or asks to resolve the conflict first when the group already has a
+     * document in the locale of the handle or the handle is linked in another group.
+     */
+    private void linkTranslation(Node handleNode, String locale, String translationId, String linkedHandleId, TranslationLinkTiming timing) throws RepositoryException {
+        final TranslationGroupService groupService = HippoServiceRegistry.getService(TranslationGroupService.class);
+        final TranslationConflict conflict = groupService != null
+                ? groupService.checkLink(handleNode.getIdentifier(), locale, translationId) : null;
+        if (conflict == null) {
+            setTranslationId(handleNode, translationId, linkedHandleId, timing);
+            return;
+        }
+        log.info("cannot link {} without resolving {}", handleNode.getPath(), conflict);
+        getDialogService().show(new TranslationConflictDialog(conflict) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void resolve(final TranslationConflict conflict) throws RepositoryException {
+                final javax.jcr.Session session = UserSession.get().getJcrSession();
+                if (conflict.getType() == TranslationConflict.Type.DUPLICATE_LOCALE) {
+                    for (String conflictingHandleId : conflict.getConflictingHandleIds()) {
+                        setTranslationId(session.getNodeByIdentifier(conflictingHandleId), UUID.randomUUID().toString(), null);
+                    }
+                }
+                setTranslationId(session.getNodeByIdentifier(conflict.getHandleId()), conflict.getTranslationId(), linkedHandleId);
+                LinkTranslationsWorkflowPlugin.this.redraw();
+            }
+        });
+    }
+
+    /**
+     * Sets the translation id on all variants of the handle, timed with the document type and locale of the handle.
+     */
+    private void setTranslationId(Node handleNode, String translationId, String linkedHandleId) {
+        TranslationLinkTiming timing = new TranslationLinkTiming("setTranslationId");
+        timing.begin();
+        try {
+            if (handleNode != null) {
+                try {
+                    Node variant = TranslatedDocuments.getCanonicalVariant(handleNode);
+                    if (variant != null) {
+                        timing.setDocumentType(variant.getPrimaryNodeType().getName());
+                        timing.setLocale(JcrUtils.getStringProperty(variant, HippoTranslationNodeType.LOCALE, null));
+                    }
+                } catch (RepositoryException e) {
+                    log.warn("could not read the document type and locale of " + new JcrNodeModel(handleNode).getItemModel().getPath(), e);
+                }
+            }
+            setTranslationId(handleNode, translationId, linkedHandleId, timing);
+        } finally {
+            timing.commit();
+        }
+    }
+
+    /**
+     * Sets the translation id on all variants of the handle. A null linkedHandleId means the handle is unlinked.
+     */
+    private void setTranslationId(Node handleNode, String translationId, String linkedHandleId, TranslationLinkTiming timing) {
         if (handleNode != null) {
             try {
+                timing.setSubjectId(handleNode.getIdentifier());
+                long start = System.nanoTime();
                 NodeIterator docNodes = handleNode.getNodes(handleNode.getName());
+                timing.addGetVariant(start);
                 while (docNodes.hasNext()) {
+                    start = System.nanoTime();
                     Node docNode = docNodes.nextNode();
+                    timing.addGetVariant(start);
                     log.debug("Setting translationID of " + docNode.getPath() + " to " + translationId);
+                    start = System.nanoTime();
                     JcrUtils.ensureIsCheckedOut(docNode);
                     docNode.setProperty(HippoTranslationNodeType.ID, translationId);
+                    timing.addVariantUpdate(start);
+                    timing.addVariants(1);
+                    start = System.nanoTime();
                     docNode.getSession().save();
                     docNode.getSession().refresh(false);
+                    timing.addSave(start);
                 }
+                TranslatedDocuments.postLinkEvent(handleNode.getSession(), handleNode.getIdentifier(), translationId, linkedHandleId,
+                        linkedHandleId != null ? "link" : "unlink");
             } catch (RepositoryException e) {
                 log.error("could not set property hippotranslation:id for document "
                         + new JcrNodeModel(handleNode).getItemModel().getPath(), e);
@@ -0,0 +1,53 @@
+package org.example.frontend.workflow.plugins;
+
+import javax.jcr.RepositoryException;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.wicket.markup.html.basic.Label;
+import org.apache.wicket.model.IModel;
+import org.apache.wicket.model.StringResourceModel;
+import org.example.repository.translations.TranslationConflict;
+import org.hippoecm.frontend.dialog.AbstractDialog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Explains why a document cannot be linked into a translation group as is and resolves the conflict on ok.
+ */
+public abstract class TranslationConflictDialog extends AbstractDialog<Void> {
+
+    private static final long serialVersionUID = 1L;
+    private static Logger log = LoggerFactory.getLogger(TranslationConflictDialog.class);
+
+    private final TranslationConflict conflict;
+
+    public TranslationConflictDialog(final TranslationConflict conflict) {
+        this.conflict = conflict;
+
+        final String message = conflict.getType() == TranslationConflict.Type.DUPLICATE_LOCALE
+                ? "dialog.conflict.duplicatelocale" : "dialog.conflict.othergroup";
+        add(new Label("message", new StringResourceModel(message, this, null,
+                conflict.getLocale(), StringUtils.join(conflict.getConflictingPaths(), ", "))));
+        setOkLabel(new StringResourceModel("dialog.resolve", this, null));
+    }
+
+    @Override
+    public IModel<String> getTitle() {
+        return new StringResourceModel("dialog.title", this, null);
+    }
+
+    @Override
+    protected void onOk() {
+        try {
+            resolve(conflict);
+        } catch (RepositoryException e) {
+            log.error("Error resolving " + conflict, e);
+            error(getString("dialog.error"));
+        }
+    }
+
+    /**
+     * Links the document after moving the conflicting documents out of the way where needed.
+     */
+    protected abstract void resolve(TranslationConflict conflict) throws RepositoryException;
+}
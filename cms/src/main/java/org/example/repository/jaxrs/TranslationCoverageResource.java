@@ -0,0 +1,67 @@
+package org.example.repository.jaxrs;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import org.apache.commons.lang.StringUtils;
+import org.example.repository.translations.TranslationCoverageIndex;
+import org.example.repository.translations.TranslationCoverageIndex.State;
+
+/**
+ * Serves translation coverage counts and pages of documents per state from the {@link TranslationCoverageIndex}.
+ */
+@Produces(MediaType.APPLICATION_JSON)
+public class TranslationCoverageResource {
+
+    private static final String DEFAULT_FOLDER = "/content/documents";
+    private static final int MAX_LIMIT = 500;
+
+    private final TranslationCoverageIndex index;
+
+    public TranslationCoverageResource(final TranslationCoverageIndex index) {
+        this.index = index;
+    }
+
+    @GET
+    @Path("/counts")
+    public Map<String, Map<State, Integer>> getCounts(@QueryParam("locale") final String locale,
+                                                      @QueryParam("folder") @DefaultValue(DEFAULT_FOLDER) final String folder) {
+        final Map<String, Map<State, Integer>> result = new TreeMap<>();
+        if (StringUtils.isNotEmpty(locale)) {
+            result.put(locale, index.getCounts(locale, folder));
+        } else {
+            for (String indexedLocale : index.getLocales()) {
+                result.put(indexedLocale, index.getCounts(indexedLocale, folder));
+            }
+        }
+        return result;
+    }
+
+    @GET
+    @Path("/documents")
+    public TranslationCoverageIndex.Page getDocuments(@QueryParam("locale") final String locale,
+                                                      @QueryParam("folder") @DefaultValue(DEFAULT_FOLDER) final String folder,
+                                                      @QueryParam("state") @DefaultValue("UNTRANSLATED") final String state,
+                                                      @QueryParam("cursor") final String cursor,
+                                                      @QueryParam("limit") @DefaultValue("50") final int limit) {
+        if (StringUtils.isEmpty(locale)) {
+            throw new WebApplicationException(Response.Status.BAD_REQUEST);
+        }
+        final State coverageState;
+        try {
+            coverageState = State.valueOf(state.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new WebApplicationException(Response.Status.BAD_REQUEST);
+        }
+        return index.getPage(locale, folder, coverageState, cursor, Math.max(1, Math.min(limit, MAX_LIMIT)));
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.repository.jaxrs;
+
+import java.io.IOException;
+import java.util.List;
+
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import org.example.repository.translations.TranslationOutbox;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Lets consumers tail the {@link TranslationOutbox}: they pass the last sequence number they processed and receive
+ * the records after it, together with the sequence number to pass on the next call and the epoch of the outbox. When
+ * the epoch differs from the one the consumer saw before, the outbox was started anew and it reads again from 0.
+ */
+@Produces(MediaType.APPLICATION_JSON)
+public class TranslationOutboxResource {
+
+    private static final Logger log = LoggerFactory.getLogger(TranslationOutboxResource.class);
+
+    private static final int MAX_LIMIT = 1000;
+
+    private final TranslationOutbox outbox;
+
+    public TranslationOutboxResource(final TranslationOutbox outbox) {
+        this.outbox = outbox;
+    }
+
+    @GET
+    public String getRecords(@QueryParam("after") @DefaultValue("0") final long after,
+                             @QueryParam("limit") @DefaultValue("100") final int limit) {
+        if (after < 0) {
+            throw new WebApplicationException(Response.Status.BAD_REQUEST);
+        }
+        final List<String> records;
+        try {
+            records = outbox.read(after, Math.max(1, Math.min(limit, MAX_LIMIT)));
+        } catch (IOException e) {
+            log.error("Failed to read translation outbox", e);
+            throw new WebApplicationException(e, Response.Status.INTERNAL_SERVER_ERROR);
+        }
+
+        final StringBuilder json = new StringBuilder("{\"records\":[");
+        for (int i = 0; i < records.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(records.get(i));
+        }
+        final long nextAfter = records.isEmpty() ? after : TranslationOutbox.getSequence(records.get(records.size() - 1));
+        return json.append("],\"nextAfter\":").append(nextAfter)
+                .append(",\"lastSequence\":").append(outbox.getLastSequence())
+                .append(",\"epoch\":\"").append(outbox.getEpoch()).append('"')
+                .append('}').toString();
+    }
+}
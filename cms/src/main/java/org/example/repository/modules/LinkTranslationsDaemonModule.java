@@ -1,23 +1,56 @@
 package org.example.repository.modules;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+import javax.jcr.ItemNotFoundException;
 import javax.jcr.Node;
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
+import javax.jcr.SimpleCredentials;
 import javax.jcr.nodetype.NodeType;
+import javax.jcr.observation.Event;
+import javax.jcr.observation.EventIterator;
+import javax.jcr.observation.EventListener;
+import javax.jcr.query.Query;
 
+import org.apache.commons.lang.StringUtils;
+import org.example.repository.jaxrs.TranslationCoverageResource;
+import org.example.repository.jaxrs.TranslationOutboxResource;
+import org.example.repository.translations.FolderLinkJobs;
+import org.example.repository.translations.FolderLinkService;
+import org.example.repository.translations.TranslatedDocuments;
+import org.example.repository.translations.TranslationConflict;
+import org.example.repository.translations.TranslationCoverageIndex;
+import org.example.repository.translations.TranslationGroupService;
+import org.example.repository.translations.TranslationLinkEvent;
+import org.example.repository.translations.TranslationLinkTiming;
+import org.example.repository.translations.TranslationOutbox;
+import org.example.repository.translations.TranslationSuggestionEngine;
+import org.example.repository.translations.TranslationSuggestionService;
+import org.example.repository.translations.TranslationSuggestions;
 import org.hippoecm.repository.HippoStdNodeType;
 import org.hippoecm.repository.api.HippoNode;
+import org.hippoecm.repository.translation.HippoTranslationNodeType;
 import org.hippoecm.repository.util.JcrUtils;
 import org.hippoecm.repository.util.NodeIterable;
 import org.onehippo.cms7.services.HippoServiceRegistry;
 import org.onehippo.cms7.services.eventbus.HippoEventBus;
 import org.onehippo.cms7.services.eventbus.Subscribe;
 import org.onehippo.repository.events.HippoWorkflowEvent;
+import org.onehippo.repository.jaxrs.RepositoryJaxrsEndpoint;
+import org.onehippo.repository.jaxrs.RepositoryJaxrsService;
 import org.onehippo.repository.modules.AbstractReconfigurableDaemonModule;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,10 +60,30 @@ public class LinkTranslationsDaemonModule extends AbstractReconfigurableDaemonMo
     private static final Logger log = LoggerFactory.getLogger(LinkTranslationsDaemonModule.class);
     private static final String ENABLED = "enabled";
     private static final String DOCUMENT_TYPE = "documentType";
+    private static final String COVERAGE_ENDPOINT = "/translations/coverage";
+    private static final String OUTBOX_ENDPOINT = "/translations/outbox";
+    private static final String CONTENT_ROOT = "/content/documents";
+    private static final String SUGGESTION_INTERVAL = "suggestionInterval";
+    private static final String SUGGESTION_PARALLELISM = "suggestionParallelism";
+    private static final String OUTBOX_DIRECTORY = "outboxDirectory";
+    private static final String OUTBOX_BATCH_SIZE = "outboxBatchSize";
+    private static final String OUTBOX_FLUSH_INTERVAL = "outboxFlushInterval";
+    private static final String RESOLVE_CONFLICTS = "resolveConflicts";
+    private static final int MAX_SUGGESTIONS = 5;
+    private static final double MIN_CONFIDENCE = 0.3;
+    private static final int FOLDER_LINK_THREADS = 2;
+    private static final int FOLDER_LINK_MAX_WAITING = 10;
+    private static final long FOLDER_LINK_RETENTION = TimeUnit.MINUTES.toMillis(10);
 
     private static Map<String, String> locales = new HashMap<>();
-    private Set<String> documentTypes = new HashSet<>();
+    private volatile Set<String> documentTypes = new HashSet<>();
     private boolean enabled = false;
+    private long suggestionInterval;
+    private int suggestionParallelism;
+    private String outboxDirectory;
+    private int outboxBatchSize;
+    private long outboxFlushInterval;
+    private boolean resolveConflicts;
     static {
         locales.put("en","nl");
         locales.put("nl", "en");
@@ -38,24 +91,65 @@ public class LinkTranslationsDaemonModule extends AbstractReconfigurableDaemonMo
 
     }
     private Session session;
+    private final TranslationCoverageIndex coverageIndex = new TranslationCoverageIndex();
+    private final TranslationSuggestions suggestions = new TranslationSuggestions();
+    private TranslationSuggestionEngine suggestionEngine;
+    private ScheduledExecutorService suggestionScheduler;
+    private Session suggestionSession;
+    private TranslationOutbox outbox;
+    private Session removalSession;
+    private EventListener removalListener;
+    private FolderLinkJobs folderLinkJobs;
+    private Session indexSession;
+    private volatile Set<String> refreshedDuringRebuild;
 
     @Override
     protected void doConfigure(final Node moduleConfig) throws RepositoryException {
         log.debug("(re)configure daemon module");
         enabled = JcrUtils.getBooleanProperty(moduleConfig, ENABLED, false);
         String [] documentTypesArray = JcrUtils.getMultipleStringProperty(moduleConfig, DOCUMENT_TYPE, null);
-        this.documentTypes.clear();
+        final Set<String> documentTypes = new HashSet<>();
         if (documentTypesArray != null) {
             for (String docType : documentTypesArray) {
                 documentTypes.add(docType);
             }
         }
+        this.documentTypes = documentTypes;
+        suggestionInterval = JcrUtils.getLongProperty(moduleConfig, SUGGESTION_INTERVAL, 0L);
+        suggestionParallelism = JcrUtils.getLongProperty(moduleConfig, SUGGESTION_PARALLELISM,
+                (long) Runtime.getRuntime().availableProcessors()).intValue();
+        final String repositoryPath = System.getProperty("repo.path");
+        outboxDirectory = JcrUtils.getStringProperty(moduleConfig, OUTBOX_DIRECTORY,
+                repositoryPath != null ? new File(repositoryPath, "translation-outbox").getPath() : null);
+        outboxBatchSize = JcrUtils.getLongProperty(moduleConfig, OUTBOX_BATCH_SIZE, 100L).intValue();
+        outboxFlushInterval = JcrUtils.getLongProperty(moduleConfig, OUTBOX_FLUSH_INTERVAL, 1000L);
+        resolveConflicts = JcrUtils.getBooleanProperty(moduleConfig, RESOLVE_CONFLICTS, false);
+        if (session != null) {
+            rebuildCoverageIndex();
+            stopSuggestions();
+            startSuggestions();
+            closeOutbox();
+            openOutbox();
+        }
     }
 
     @Override
     protected void doInitialize(final Session session) throws RepositoryException {
         log.debug("initialize daemon module");
         this.session = session;
+        indexSession = session.impersonate(new SimpleCredentials(session.getUserID(), new char[]{}));
+        rebuildCoverageIndex();
+        RepositoryJaxrsService.addEndpoint(new RepositoryJaxrsEndpoint(COVERAGE_ENDPOINT)
+                .singleton(new TranslationCoverageResource(coverageIndex))
+                .authorized(CONTENT_ROOT, Session.ACTION_READ));
+        HippoServiceRegistry.registerService(coverageIndex, TranslationGroupService.class);
+        HippoServiceRegistry.registerService(suggestions, TranslationSuggestionService.class);
+        folderLinkJobs = new FolderLinkJobs(session.impersonate(new SimpleCredentials(session.getUserID(), new char[]{})),
+                coverageIndex, FOLDER_LINK_THREADS, FOLDER_LINK_MAX_WAITING, FOLDER_LINK_RETENTION);
+        HippoServiceRegistry.registerService(folderLinkJobs, FolderLinkService.class);
+        startSuggestions();
+        openOutbox();
+        startRemovalListener();
         HippoServiceRegistry.registerService(this, HippoEventBus.class);
     }
 
@@ -63,6 +157,22 @@ public class LinkTranslationsDaemonModule extends AbstractReconfigurableDaemonMo
     protected void doShutdown() {
         log.debug("shutdown daemon module");
         HippoServiceRegistry.unregisterService(this, HippoEventBus.class);
+        RepositoryJaxrsService.removeEndpoint(COVERAGE_ENDPOINT);
+        stopRemovalListener();
+        stopSuggestions();
+        closeOutbox();
+        if (folderLinkJobs != null) {
+            HippoServiceRegistry.unregisterService(folderLinkJobs, FolderLinkService.class);
+            folderLinkJobs.shutdown();
+            folderLinkJobs = null;
+        }
+        HippoServiceRegistry.unregisterService(suggestions, TranslationSuggestionService.class);
+        HippoServiceRegistry.unregisterService(coverageIndex, TranslationGroupService.class);
+        coverageIndex.clear();
+        if (indexSession != null) {
+            indexSession.logout();
+            indexSession = null;
+        }
     }
 
     @Subscribe
@@ -70,38 +180,220 @@ public class LinkTranslationsDaemonModule extends AbstractReconfigurableDaemonMo
 
         if (enabled && event.success() && documentTypes.contains(event.documentType()) && "commitEditableInstance".equals(event.action())) {
             log.debug("event interaction {}", event.interaction());
-            final HippoNode handle = (HippoNode) session.getNodeByIdentifier(event.subjectId());
-            Node draftVariant = getVariant(handle, HippoStdNodeType.DRAFT);
-            if (draftVariant != null && draftVariant.hasProperty("hippotranslation:id") && draftVariant.hasProperty("hippotranslation:locale") && draftVariant.hasNode("translationspoc:translationlink")) {
-                NodeType nodeType = draftVariant.getPrimaryNodeType();
-                String translationId = draftVariant.getProperty("hippotranslation:id").getString();
-                String locale = draftVariant.getProperty("hippotranslation:locale").getString();
-                Node translationLinkNode = draftVariant.getNode("translationspoc:translationlink");
-
-                if (translationLinkNode != null && nodeType != null && translationId != null) {
-                    String uuid = translationLinkNode.getProperty("hippo:docbase").getString();
-                    Node translatedHandleNode = session.getNodeByIdentifier(uuid);
-                    if (translatedHandleNode != null) {
-                        log.debug("link translations {} with {}", handle.getPath(), translatedHandleNode.getPath());
-                        updateTranslationIdOnVariants(translatedHandleNode, event.subjectId(), nodeType, translationId, locales.get(locale));
-                        session.save();
+            final TranslationLinkTiming timing = new TranslationLinkTiming("handleEvent");
+            timing.begin();
+            timing.setSubjectId(event.subjectId());
+            timing.setDocumentType(event.documentType());
+            try {
+                long start = System.nanoTime();
+                final HippoNode handle = (HippoNode) session.getNodeByIdentifier(event.subjectId());
+                timing.addLookup(start);
+                start = System.nanoTime();
+                Node draftVariant = TranslatedDocuments.getVariant(handle, HippoStdNodeType.DRAFT);
+                timing.addGetVariant(start);
+                if (draftVariant != null && draftVariant.hasProperty("hippotranslation:id") && draftVariant.hasProperty("hippotranslation:locale") && draftVariant.hasNode("translationspoc:translationlink")) {
+                    NodeType nodeType = draftVariant.getPrimaryNodeType();
+                    String translationId = draftVariant.getProperty("hippotranslation:id").getString();
+                    String locale = draftVariant.getProperty("hippotranslation:locale").getString();
+                    Node translationLinkNode = draftVariant.getNode("translationspoc:translationlink");
+                    timing.setLocale(locale);
+
+                    if (translationLinkNode != null && nodeType != null && translationId != null) {
+                        String uuid = translationLinkNode.getProperty("hippo:docbase").getString();
+                        start = System.nanoTime();
+                        Node translatedHandleNode = session.getNodeByIdentifier(uuid);
+                        timing.addLookup(start);
+                        final TranslationConflict conflict = translatedHandleNode != null
+                                ? coverageIndex.checkLink(uuid, locales.get(locale), translationId) : null;
+                        if (conflict != null && !resolveConflicts) {
+                            log.warn("not linking translations {} with {}: {}", handle.getPath(), translatedHandleNode.getPath(), conflict);
+                        } else if (translatedHandleNode != null) {
+                            log.debug("link translations {} with {}", handle.getPath(), translatedHandleNode.getPath());
+                            final TranslationCoverageIndex.Document previous = coverageIndex.getDocument(uuid);
+                            start = System.nanoTime();
+                            final Map<String, String> detached = conflict != null ? resolveConflict(conflict) : new HashMap<>();
+                            timing.addVariants(updateTranslationIdOnVariants(translatedHandleNode, event.subjectId(), nodeType, translationId, locales.get(locale)));
+                            timing.addVariantUpdate(start);
+                            start = System.nanoTime();
+                            session.save();
+                            timing.addSave(start);
+                            for (Map.Entry<String, String> entry : detached.entrySet()) {
+                                refreshCoverage(entry.getKey());
+                                appendToOutbox("unlink", entry.getValue(), conflict.getLocale(), entry.getKey(), null, event.user());
+                            }
+                            final TranslationCoverageIndex.Document translated = refreshCoverage(uuid);
+                            if (isLinkChanged(previous, translated)) {
+                                appendToOutbox("link", translationId, translated != null ? translated.getLocale() : locales.get(locale),
+                                        uuid, event.subjectId(), event.user());
+                            }
+                        }
                     }
                 }
+            } finally {
+                timing.commit();
             }
         }
+        if (enabled && event.success() && documentTypes.contains(event.documentType())) {
+            refreshCoverage(event.subjectId());
+        }
     }
 
-    private Node getVariant(Node handle, final String state) throws RepositoryException {
-        for (Node variant : new NodeIterable(handle.getNodes(handle.getName()))) {
-            final String variantState = JcrUtils.getStringProperty(variant, HippoStdNodeType.HIPPOSTD_STATE, null);
-            if (state.equals(variantState)) {
-                return variant;
+    @Subscribe
+    public void handleTranslationLinkEvent(final TranslationLinkEvent event) throws RepositoryException {
+        if (enabled) {
+            final TranslationCoverageIndex.Document document = refreshCoverage(event.handleId());
+            appendToOutbox(event.action(), event.translationId(), document != null ? document.getLocale() : null,
+                    event.handleId(), event.linkedHandleId(), event.user());
+        }
+    }
+
+    /**
+     * Folder workflow events carry the folder, not the documents in it, and not where they were before a rename or
+     * move. The removal events of the JCR observation do carry the old path, so every indexed document at or below a
+     * removed path is read again: moved documents are indexed with their new path, deleted ones are dropped.
+     */
+    private void handleRemovals(final EventIterator events) {
+        if (!enabled) {
+            return;
+        }
+        final Set<String> handleIds = new HashSet<>();
+        try {
+            while (events.hasNext()) {
+                handleIds.addAll(coverageIndex.getHandleIds(events.nextEvent().getPath()));
+            }
+            if (handleIds.isEmpty()) {
+                return;
+            }
+            removalSession.refresh(false);
+            for (String handleId : handleIds) {
+                refreshCoverage(removalSession, handleId);
+            }
+            log.debug("refreshed translation coverage of {} moved or removed documents", handleIds.size());
+        } catch (RepositoryException | RuntimeException e) {
+            log.error("Failed to refresh translation coverage after removals", e);
+        }
+    }
+
+    private void startRemovalListener() throws RepositoryException {
+        removalSession = session.impersonate(new SimpleCredentials(session.getUserID(), new char[]{}));
+        removalListener = this::handleRemovals;
+        removalSession.getWorkspace().getObservationManager().addEventListener(removalListener,
+                Event.NODE_REMOVED, CONTENT_ROOT, true, null, null, false);
+    }
+
+    private void stopRemovalListener() {
+        if (removalSession != null) {
+            try {
+                removalSession.getWorkspace().getObservationManager().removeEventListener(removalListener);
+            } catch (RepositoryException e) {
+                log.warn("Failed to remove translation coverage listener", e);
             }
+            removalSession.logout();
+            removalSession = null;
+            removalListener = null;
         }
-        return null;
     }
 
-    private void updateTranslationIdOnVariants(final Node handle, final String uuid, final NodeType nodeType, final String translationId, final String locale) throws RepositoryException {
+    /**
+     * Builds a new index with a session of its own and swaps it in, so the index keeps serving the previous state
+     * while it is rebuilt, also when the module is reconfigured while events are handled. Documents that events
+     * refreshed during the rebuild may have been read before their change, so they are read again after the swap.
+     */
+    private void rebuildCoverageIndex() throws RepositoryException {
+        final long start = System.currentTimeMillis();
+        final Set<String> refreshed = ConcurrentHashMap.newKeySet();
+        final TranslationCoverageIndex rebuilt = new TranslationCoverageIndex();
+        refreshedDuringRebuild = refreshed;
+        try {
+            indexSession.refresh(false);
+            for (String documentType : documentTypes) {
+                final String statement = "/jcr:root" + CONTENT_ROOT + "//element(*, " + documentType + ")[@hippostd:state='unpublished']";
+                final Query query = indexSession.getWorkspace().getQueryManager().createQuery(statement, Query.XPATH);
+                for (Node variant : new NodeIterable(query.execute().getNodes())) {
+                    final TranslationCoverageIndex.Document document = TranslatedDocuments.toDocument(variant.getParent());
+                    if (document != null) {
+                        rebuilt.update(document);
+                    }
+                }
+            }
+            coverageIndex.replaceWith(rebuilt);
+        } finally {
+            refreshedDuringRebuild = null;
+        }
+        indexSession.refresh(false);
+        for (String handleId : refreshed) {
+            refreshCoverage(indexSession, handleId);
+        }
+        log.info("indexed translation coverage of {} documents in {} ms", coverageIndex.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Updates the coverage index for a handle and returns its translation state, or null when it no longer exists.
+     */
+    private TranslationCoverageIndex.Document refreshCoverage(final String handleId) throws RepositoryException {
+        return refreshCoverage(session, handleId);
+    }
+
+    private TranslationCoverageIndex.Document refreshCoverage(final Session session, final String handleId) throws RepositoryException {
+        final Set<String> refreshed = refreshedDuringRebuild;
+        if (refreshed != null) {
+            refreshed.add(handleId);
+        }
+        try {
+            final Node handle = session.getNodeByIdentifier(handleId);
+            final TranslationCoverageIndex.Document document = TranslatedDocuments.toDocument(handle);
+            if (document != null && documentTypes.contains(document.getDocumentType())) {
+                coverageIndex.update(document);
+            } else {
+                coverageIndex.remove(handleId);
+            }
+            return document;
+        } catch (ItemNotFoundException e) {
+            coverageIndex.remove(handleId);
+            return null;
+        }
+    }
+
+    /**
+     * Every commit of a linked document writes the link again; only a link that differs from what was indexed before
+     * is a change for the outbox.
+     */
+    private static boolean isLinkChanged(final TranslationCoverageIndex.Document previous, final TranslationCoverageIndex.Document current) {
+        if (previous == null || current == null) {
+            return previous != current;
+        }
+        return !StringUtils.equals(previous.getTranslationId(), current.getTranslationId())
+                || !StringUtils.equals(previous.getLocale(), current.getLocale())
+                || !StringUtils.equals(previous.getLinkedHandleId(), current.getLinkedHandleId());
+    }
+
+    /**
+     * Moves the documents that conflict with a link into groups of their own and returns their new translation ids
+     * by handle id. A document that leaves another group needs no changes, linking it moves it out.
+     */
+    private Map<String, String> resolveConflict(final TranslationConflict conflict) throws RepositoryException {
+        final Map<String, String> detached = new HashMap<>();
+        if (conflict.getType() != TranslationConflict.Type.DUPLICATE_LOCALE) {
+            log.info("resolve {} by linking the document into the new group", conflict);
+            return detached;
+        }
+        log.info("resolve {} by unlinking the conflicting documents", conflict);
+        for (String handleId : conflict.getConflictingHandleIds()) {
+            final Node handle = session.getNodeByIdentifier(handleId);
+            final String translationId = UUID.randomUUID().toString();
+            for (Node variant : new NodeIterable(handle.getNodes(handle.getName()))) {
+                if (variant.isNodeType(HippoTranslationNodeType.NT_TRANSLATED)) {
+                    JcrUtils.ensureIsCheckedOut(variant);
+                    variant.setProperty(HippoTranslationNodeType.ID, translationId);
+                }
+            }
+            detached.put(handleId, translationId);
+        }
+        return detached;
+    }
+
+    private int updateTranslationIdOnVariants(final Node handle, final String uuid, final NodeType nodeType, final String translationId, final String locale) throws RepositoryException {
+        int updated = 0;
         for (Node variant : new NodeIterable(handle.getNodes(handle.getName()))) {
             if (variant.getPrimaryNodeType().equals(nodeType) && variant.isNodeType("hippotranslation:translated")) {
                 JcrUtils.ensureIsCheckedOut(variant);
@@ -112,7 +404,116 @@ public class LinkTranslationsDaemonModule extends AbstractReconfigurableDaemonMo
                 }
                 Node translationLinkNode = variant.getNode("translationspoc:translationlink");
                 translationLinkNode.setProperty("hippo:docbase", uuid);
+                updated++;
+            }
+        }
+        return updated;
+    }
+
+    private void appendToOutbox(final String action, final String translationId, final String locale,
+                                final String handleId, final String linkedHandleId, final String user) {
+        if (outbox != null) {
+            outbox.append(action, translationId, locale, handleId, linkedHandleId, user);
+        }
+    }
+
+    /**
+     * The outbox must survive restarts, so without an {@code outboxDirectory} or {@code repo.path} it is disabled
+     * rather than kept in a temporary directory.
+     */
+    private void openOutbox() throws RepositoryException {
+        if (outboxDirectory == null) {
+            log.warn("translation outbox disabled: configure {} or set the repo.path system property", OUTBOX_DIRECTORY);
+            return;
+        }
+        outbox = new TranslationOutbox(new File(outboxDirectory), outboxBatchSize, outboxFlushInterval);
+        try {
+            outbox.open();
+        } catch (IOException e) {
+            throw new RepositoryException("Cannot open translation outbox in " + outboxDirectory, e);
+        }
+        RepositoryJaxrsService.addEndpoint(new RepositoryJaxrsEndpoint(OUTBOX_ENDPOINT)
+                .singleton(new TranslationOutboxResource(outbox))
+                .authorized(CONTENT_ROOT, Session.ACTION_READ));
+    }
+
+    private void closeOutbox() {
+        if (outbox != null) {
+            RepositoryJaxrsService.removeEndpoint(OUTBOX_ENDPOINT);
+            outbox.close();
+            outbox = null;
+        }
+    }
+
+    private void startSuggestions() throws RepositoryException {
+        if (!enabled || suggestionInterval <= 0) {
+            return;
+        }
+        suggestionSession = session.impersonate(new SimpleCredentials(session.getUserID(), new char[]{}));
+        suggestionEngine = new TranslationSuggestionEngine(suggestionParallelism, MAX_SUGGESTIONS, MIN_CONFIDENCE);
+        suggestionScheduler = Executors.newSingleThreadScheduledExecutor();
+        suggestionScheduler.scheduleWithFixedDelay(this::computeSuggestions, 0, suggestionInterval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops the scheduled computation and waits for a running one to end before its engine and session are closed.
+     */
+    private void stopSuggestions() {
+        if (suggestionScheduler != null) {
+            suggestionScheduler.shutdownNow();
+            try {
+                if (!suggestionScheduler.awaitTermination(30, TimeUnit.SECONDS)) {
+                    log.warn("translation suggestions computation did not stop within 30 seconds");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            suggestionScheduler = null;
+        }
+        if (suggestionEngine != null) {
+            suggestionEngine.shutdown();
+            suggestionEngine = null;
+        }
+        if (suggestionSession != null) {
+            suggestionSession.logout();
+            suggestionSession = null;
+        }
+    }
+
+    private void computeSuggestions() {
+        final long start = System.currentTimeMillis();
+        try {
+            suggestionSession.refresh(false);
+            final Set<String> types = new HashSet<>(documentTypes);
+            final Map<String, List<Node>> rootFolders = new HashMap<>();
+            for (Node folder : new NodeIterable(suggestionSession.getNode(CONTENT_ROOT).getNodes())) {
+                if (folder.isNodeType(HippoTranslationNodeType.NT_TRANSLATED)) {
+                    final String translationId = JcrUtils.getStringProperty(folder, HippoTranslationNodeType.ID, null);
+                    rootFolders.computeIfAbsent(translationId, id -> new ArrayList<>()).add(folder);
+                }
+            }
+
+            final Map<String, List<TranslationSuggestionEngine.Suggestion>> result = new HashMap<>();
+            for (List<Node> translatedRoots : rootFolders.values()) {
+                if (Thread.currentThread().isInterrupted()) {
+                    log.info("translation suggestions computation stopped");
+                    return;
+                }
+                final List<TranslationSuggestionEngine.FolderSnapshot> snapshots = new ArrayList<>();
+                for (Node root : translatedRoots) {
+                    snapshots.add(TranslationSuggestionEngine.snapshot(root, types));
+                }
+                for (int i = 0; i < snapshots.size(); i++) {
+                    for (int j = i + 1; j < snapshots.size(); j++) {
+                        suggestionEngine.suggest(snapshots.get(i), snapshots.get(j)).forEach((handleId, ranked) ->
+                                result.computeIfAbsent(handleId, id -> new ArrayList<>()).addAll(ranked));
+                    }
+                }
             }
+            suggestions.replace(result);
+            log.info("computed translation suggestions for {} documents in {} ms", result.size(), System.currentTimeMillis() - start);
+        } catch (RepositoryException | RuntimeException e) {
+            log.error("Failed to compute translation suggestions", e);
         }
     }
 
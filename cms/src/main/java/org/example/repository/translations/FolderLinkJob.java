@@ -0,0 +1,106 @@
+package org.example.repository.translations;
+
+import java.util.List;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Links the pairings of a folder with the session it is given and logs that session out when done. The pairings are
+ * released when the job finishes, only the counts are kept.
+ */
+public final class FolderLinkJob implements Runnable, FolderTranslationLinker.ProgressListener {
+
+    private static final Logger log = LoggerFactory.getLogger(FolderLinkJob.class);
+
+    private final FolderTranslationLinker linker;
+    private final TranslationGroupService groupService;
+    private List<FolderTranslationLinker.Pairing> pairings;
+    private Session session;
+    private volatile int processed;
+    private volatile int total;
+    private volatile int linked;
+    private volatile boolean failed;
+    private volatile long finished;
+
+    FolderLinkJob(final FolderTranslationLinker linker, final List<FolderTranslationLinker.Pairing> pairings,
+                  final Session session, final TranslationGroupService groupService) {
+        this.linker = linker;
+        this.pairings = pairings;
+        this.session = session;
+        this.groupService = groupService;
+        for (FolderTranslationLinker.Pairing pairing : pairings) {
+            if (pairing.getStatus() == FolderTranslationLinker.Pairing.Status.PENDING) {
+                total++;
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        final long start = System.currentTimeMillis();
+        try {
+            linked = linker.apply(session, pairings, groupService, this);
+            log.info("linked {} documents in {} ms", linked, System.currentTimeMillis() - start);
+        } catch (RepositoryException | RuntimeException e) {
+            log.error("Error linking folder translations", e);
+            failed = true;
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Marks a job that will not run, e.g. because the executor was shut down, as failed.
+     */
+    void cancel() {
+        failed = true;
+        release();
+    }
+
+    private synchronized void release() {
+        if (session != null) {
+            session.logout();
+            session = null;
+        }
+        pairings = null;
+        finished = System.currentTimeMillis();
+    }
+
+    @Override
+    public void progress(final int processed, final int total) {
+        this.processed = processed;
+        this.total = total;
+        log.debug("linked {} of {} documents", processed, total);
+    }
+
+    public int getProcessed() {
+        return processed;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getLinked() {
+        return linked;
+    }
+
+    public boolean isFailed() {
+        return failed;
+    }
+
+    public boolean isDone() {
+        return finished > 0;
+    }
+
+    /**
+     * Returns when the job finished in milliseconds since the epoch, or 0 while it has not.
+     */
+    long getFinished() {
+        return finished;
+    }
+}
@@ -0,0 +1,107 @@
+package org.example.repository.translations;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.SimpleCredentials;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs folder link jobs on a bounded number of threads, with at most a bounded number of jobs waiting. Every job gets
+ * a session of the user that started it, impersonated from a system session, so documents are linked with the
+ * permissions of that user. Finished jobs are kept for the user interface to pick up their result and forgotten after
+ * the retention time, whether or not anybody asked for them.
+ */
+public class FolderLinkJobs implements FolderLinkService {
+
+    private static final Logger log = LoggerFactory.getLogger(FolderLinkJobs.class);
+
+    private final Session session;
+    private final TranslationGroupService groupService;
+    private final long retentionMillis;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, FolderLinkJob> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * @param session a system session that is only used to impersonate users; it is logged out on shutdown
+     */
+    public FolderLinkJobs(final Session session, final TranslationGroupService groupService, final int threads,
+                          final int maxWaiting, final long retentionMillis) {
+        this.session = session;
+        this.groupService = groupService;
+        this.retentionMillis = retentionMillis;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, maxWaiting)), runnable -> {
+                    final Thread thread = new Thread(runnable, "link-folder-translations");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @Override
+    public String start(final String userId, final FolderTranslationLinker linker,
+                        final List<FolderTranslationLinker.Pairing> pairings) throws RepositoryException {
+        expire();
+        final Session userSession;
+        synchronized (session) {
+            userSession = session.impersonate(new SimpleCredentials(userId, new char[]{}));
+        }
+        final FolderLinkJob job = new FolderLinkJob(linker, pairings, userSession, groupService);
+        try {
+            executor.execute(job);
+        } catch (RejectedExecutionException e) {
+            job.cancel();
+            throw e;
+        }
+        final String jobId = UUID.randomUUID().toString();
+        jobs.put(jobId, job);
+        log.debug("started folder link job {} for {} with {} documents", jobId, userId, job.getTotal());
+        return jobId;
+    }
+
+    @Override
+    public FolderLinkJob getJob(final String jobId) {
+        expire();
+        return jobs.get(jobId);
+    }
+
+    @Override
+    public void remove(final String jobId) {
+        jobs.remove(jobId);
+    }
+
+    /**
+     * Stops the running jobs, fails the waiting ones and logs out the system session.
+     */
+    public void shutdown() {
+        for (Runnable waiting : executor.shutdownNow()) {
+            ((FolderLinkJob) waiting).cancel();
+        }
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("folder link jobs did not stop within 30 seconds");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        jobs.clear();
+        synchronized (session) {
+            session.logout();
+        }
+    }
+
+    private void expire() {
+        final long now = System.currentTimeMillis();
+        jobs.values().removeIf(job -> job.isDone() && now - job.getFinished() > retentionMillis);
+    }
+}
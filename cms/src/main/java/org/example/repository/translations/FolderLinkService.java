@@ -0,0 +1,34 @@
+package org.example.repository.translations;
+
+import java.util.List;
+
+import javax.jcr.RepositoryException;
+
+import org.onehippo.cms7.services.SingletonService;
+
+/**
+ * Links the documents of a folder with their counterparts in the background, with a session of the user that started
+ * it, and keeps the progress for the user interface to poll.
+ */
+@SingletonService
+public interface FolderLinkService {
+
+    /**
+     * Starts linking the pending pairings on behalf of the user and returns the id of the job.
+     *
+     * @throws java.util.concurrent.RejectedExecutionException when too many jobs are running or waiting already
+     */
+    String start(String userId, FolderTranslationLinker linker, List<FolderTranslationLinker.Pairing> pairings)
+            throws RepositoryException;
+
+    /**
+     * Returns the job, or null when it is unknown or it finished longer ago than it is kept.
+     */
+    FolderLinkJob getJob(String jobId);
+
+    /**
+     * Forgets the job. A running job is not stopped.
+     */
+    void remove(String jobId);
+
+}
@@ -0,0 +1,259 @@
+package org.example.repository.translations;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.jcr.ItemNotFoundException;
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.apache.commons.lang.StringUtils;
+import org.hippoecm.repository.HippoStdNodeType;
+import org.hippoecm.repository.api.HippoNodeType;
+import org.hippoecm.repository.translation.HippoTranslationNodeType;
+import org.hippoecm.repository.util.JcrUtils;
+import org.hippoecm.repository.util.NodeIterable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pairs the documents of a translated folder with the documents of its counterpart folder and links all pairs in
+ * batched saves. Documents are paired by their path relative to the folder, or by the value of a key property of
+ * their variants when one is configured. Documents that share a key with other documents of the same folder are
+ * reported as duplicates, and documents whose link would break a translation group as conflicts; neither are linked.
+ */
+public class FolderTranslationLinker implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger log = LoggerFactory.getLogger(FolderTranslationLinker.class);
+
+    public interface ProgressListener {
+        void progress(int processed, int total);
+    }
+
+    private final String keyProperty;
+    private final int batchSize;
+
+    public FolderTranslationLinker(final String keyProperty, final int batchSize) {
+        this.keyProperty = StringUtils.trimToNull(keyProperty);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Pairs the documents of both folders. Every pairing that is not linked yet is checked with the group service
+     * when one is given.
+     */
+    public List<Pairing> computePairings(final Node sourceFolder, final Node targetFolder, final TranslationGroupService groupService)
+            throws RepositoryException {
+        final Map<String, List<Node>> targetHandles = new HashMap<>();
+        collectHandles(targetFolder, "", targetHandles);
+
+        final Map<String, List<Node>> sourceHandles = new HashMap<>();
+        collectHandles(sourceFolder, "", sourceHandles);
+
+        final List<Pairing> pairings = new ArrayList<>();
+        for (Map.Entry<String, List<Node>> entry : sourceHandles.entrySet()) {
+            final List<Node> targets = targetHandles.get(entry.getKey());
+            if (targets == null) {
+                continue;
+            }
+            final boolean duplicate = entry.getValue().size() > 1 || targets.size() > 1;
+            for (Node sourceHandle : entry.getValue()) {
+                for (Node targetHandle : targets) {
+                    final Pairing pairing = createPairing(sourceHandle, targetHandle, duplicate, groupService);
+                    if (pairing != null) {
+                        pairings.add(pairing);
+                    }
+                }
+            }
+        }
+        pairings.sort((p1, p2) -> {
+            final int bySource = p1.getSourcePath().compareTo(p2.getSourcePath());
+            return bySource != 0 ? bySource : p1.getTargetPath().compareTo(p2.getTargetPath());
+        });
+        return pairings;
+    }
+
+    private static Pairing createPairing(final Node sourceHandle, final Node targetHandle, final boolean duplicate,
+                                         final TranslationGroupService groupService) throws RepositoryException {
+        final Node sourceVariant = TranslatedDocuments.getCanonicalVariant(sourceHandle);
+        final Node targetVariant = TranslatedDocuments.getCanonicalVariant(targetHandle);
+        if (sourceVariant == null || targetVariant == null
+                || !sourceVariant.getPrimaryNodeType().getName().equals(targetVariant.getPrimaryNodeType().getName())) {
+            return null;
+        }
+        final String translationId = JcrUtils.getStringProperty(sourceVariant, HippoTranslationNodeType.ID, null);
+        if (translationId == null) {
+            return null;
+        }
+        final String targetLocale = JcrUtils.getStringProperty(targetVariant, HippoTranslationNodeType.LOCALE, null);
+        TranslationConflict conflict = null;
+        final Pairing.Status status;
+        if (duplicate) {
+            status = Pairing.Status.DUPLICATE_KEY;
+        } else if (translationId.equals(JcrUtils.getStringProperty(targetVariant, HippoTranslationNodeType.ID, null))) {
+            status = Pairing.Status.LINKED;
+        } else {
+            conflict = groupService != null ? groupService.checkLink(targetHandle.getIdentifier(), targetLocale, translationId) : null;
+            status = conflict != null ? Pairing.Status.CONFLICT : Pairing.Status.PENDING;
+        }
+        return new Pairing(sourceHandle.getIdentifier(), sourceHandle.getPath(), targetHandle.getIdentifier(), targetHandle.getPath(),
+                targetLocale, translationId, status, conflict);
+    }
+
+    /**
+     * Writes the translation id of the source document on all variants of the pending target documents, saving the
+     * session after every batch. Links are checked again with the group service when one is given, as groups may have
+     * changed since the pairings were computed; conflicting documents are skipped. Returns the number of documents
+     * that were linked.
+     */
+    public int apply(final Session session, final List<Pairing> pairings, final TranslationGroupService groupService,
+                     final ProgressListener listener) throws RepositoryException {
+        final List<Pairing> pending = new ArrayList<>();
+        for (Pairing pairing : pairings) {
+            if (pairing.getStatus() == Pairing.Status.PENDING) {
+                pending.add(pairing);
+            }
+        }
+
+        final List<Pairing> batch = new ArrayList<>(batchSize);
+        int processed = 0;
+        int linked = 0;
+        for (Pairing pairing : pending) {
+            final TranslationConflict conflict = groupService != null
+                    ? groupService.checkLink(pairing.getTargetHandleId(), pairing.getTargetLocale(), pairing.getTranslationId()) : null;
+            try {
+                if (conflict != null) {
+                    log.warn("skip linking {} with {}: {}", pairing.getTargetPath(), pairing.getSourcePath(), conflict);
+                } else {
+                    final Node targetHandle = session.getNodeByIdentifier(pairing.getTargetHandleId());
+                    setTranslationId(targetHandle, pairing.getTranslationId());
+                    batch.add(pairing);
+                }
+            } catch (ItemNotFoundException e) {
+                log.warn("document {} no longer exists, skip linking it with {}", pairing.getTargetPath(), pairing.getSourcePath());
+            }
+            processed++;
+            if (batch.size() == batchSize || processed == pending.size()) {
+                session.save();
+                linked += batch.size();
+                for (Pairing saved : batch) {
+                    TranslatedDocuments.postLinkEvent(session, saved.getTargetHandleId(), saved.getTranslationId(),
+                            saved.getSourceHandleId(), "link");
+                }
+                batch.clear();
+                if (listener != null) {
+                    listener.progress(processed, pending.size());
+                }
+            }
+        }
+        return linked;
+    }
+
+    private void setTranslationId(final Node handle, final String translationId) throws RepositoryException {
+        for (Node variant : new NodeIterable(handle.getNodes(handle.getName()))) {
+            if (variant.isNodeType(HippoTranslationNodeType.NT_TRANSLATED)) {
+                JcrUtils.ensureIsCheckedOut(variant);
+                variant.setProperty(HippoTranslationNodeType.ID, translationId);
+            }
+        }
+    }
+
+    private void collectHandles(final Node folder, final String relativePath, final Map<String, List<Node>> handles) throws RepositoryException {
+        for (Node child : new NodeIterable(folder.getNodes())) {
+            if (child.isNodeType(HippoNodeType.NT_HANDLE)) {
+                final String key = getKey(child, relativePath);
+                if (key != null) {
+                    handles.computeIfAbsent(key, k -> new ArrayList<>()).add(child);
+                }
+            } else if (child.isNodeType(HippoStdNodeType.NT_FOLDER)) {
+                collectHandles(child, relativePath + child.getName() + "/", handles);
+            }
+        }
+    }
+
+    private String getKey(final Node handle, final String relativePath) throws RepositoryException {
+        if (keyProperty == null) {
+            return relativePath + handle.getName();
+        }
+        final Node variant = TranslatedDocuments.getCanonicalVariant(handle);
+        return variant != null ? JcrUtils.getStringProperty(variant, keyProperty, null) : null;
+    }
+
+    public static final class Pairing implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        public enum Status {
+            /** The documents are not linked yet and will be linked. */
+            PENDING,
+            /** The documents are already linked. */
+            LINKED,
+            /** Other documents in the source or target folder have the same key, so the pairing is ambiguous. */
+            DUPLICATE_KEY,
+            /** Linking would put a second document of the target locale in the group, or break up another group. */
+            CONFLICT
+        }
+
+        private final String sourceHandleId;
+        private final String sourcePath;
+        private final String targetHandleId;
+        private final String targetPath;
+        private final String targetLocale;
+        private final String translationId;
+        private final Status status;
+        private final TranslationConflict conflict;
+
+        public Pairing(final String sourceHandleId, final String sourcePath, final String targetHandleId, final String targetPath,
+                       final String targetLocale, final String translationId, final Status status, final TranslationConflict conflict) {
+            this.sourceHandleId = sourceHandleId;
+            this.sourcePath = sourcePath;
+            this.targetHandleId = targetHandleId;
+            this.targetPath = targetPath;
+            this.targetLocale = targetLocale;
+            this.translationId = translationId;
+            this.status = status;
+            this.conflict = conflict;
+        }
+
+        public String getSourceHandleId() {
+            return sourceHandleId;
+        }
+
+        public String getSourcePath() {
+            return sourcePath;
+        }
+
+        public String getTargetHandleId() {
+            return targetHandleId;
+        }
+
+        public String getTargetPath() {
+            return targetPath;
+        }
+
+        public String getTargetLocale() {
+            return targetLocale;
+        }
+
+        public String getTranslationId() {
+            return translationId;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        /**
+         * Returns the conflict of a pairing with status {@link Status#CONFLICT}, or null.
+         */
+        public TranslationConflict getConflict() {
+            return conflict;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.repository.translations;
+
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.apache.commons.lang.StringUtils;
+import org.hippoecm.repository.HippoStdNodeType;
+import org.hippoecm.repository.translation.HippoTranslationNodeType;
+import org.hippoecm.repository.util.JcrUtils;
+import org.hippoecm.repository.util.NodeIterable;
+import org.onehippo.cms7.services.HippoServiceRegistry;
+import org.onehippo.cms7.services.eventbus.HippoEventBus;
+
+/**
+ * Helpers for reading the translation properties and link of translated document handles.
+ */
+public final class TranslatedDocuments {
+
+    public static final String TRANSLATION_LINK = "translationspoc:translationlink";
+    public static final String DOCBASE = "hippo:docbase";
+
+    private static final String ROOT_UUID = "cafebabe-cafe-babe-cafe-babecafebabe";
+    private static final String[] CANONICAL_STATES = {
+            HippoStdNodeType.UNPUBLISHED, HippoStdNodeType.PUBLISHED, HippoStdNodeType.DRAFT
+    };
+
+    private TranslatedDocuments() {
+    }
+
+    public static Node getVariant(final Node handle, final String state) throws RepositoryException {
+        for (Node variant : new NodeIterable(handle.getNodes(handle.getName()))) {
+            final String variantState = JcrUtils.getStringProperty(variant, HippoStdNodeType.HIPPOSTD_STATE, null);
+            if (state.equals(variantState)) {
+                return variant;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the variant that represents the document in reports: unpublished if present, otherwise published or draft.
+     */
+    public static Node getCanonicalVariant(final Node handle) throws RepositoryException {
+        for (String state : CANONICAL_STATES) {
+            final Node variant = getVariant(handle, state);
+            if (variant != null) {
+                return variant;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the handle identifier the translation link of the variant points to, or null when it is not set.
+     */
+    public static String getLinkedHandleId(final Node variant) throws RepositoryException {
+        if (!variant.hasNode(TRANSLATION_LINK)) {
+            return null;
+        }
+        final String docbase = JcrUtils.getStringProperty(variant.getNode(TRANSLATION_LINK), DOCBASE, null);
+        if (StringUtils.isBlank(docbase) || ROOT_UUID.equals(docbase)) {
+            return null;
+        }
+        return docbase;
+    }
+
+    /**
+     * Reads the translation state of a handle, or returns null when it has no translated variant.
+     */
+    public static TranslationCoverageIndex.Document toDocument(final Node handle) throws RepositoryException {
+        final Node variant = getCanonicalVariant(handle);
+        if (variant == null || !variant.isNodeType(HippoTranslationNodeType.NT_TRANSLATED)) {
+            return null;
+        }
+        return new TranslationCoverageIndex.Document(
+                handle.getIdentifier(),
+                handle.getPath(),
+                variant.getPrimaryNodeType().getName(),
+                JcrUtils.getStringProperty(variant, HippoTranslationNodeType.LOCALE, null),
+                JcrUtils.getStringProperty(variant, HippoTranslationNodeType.ID, null),
+                getLinkedHandleId(variant));
+    }
+
+    /**
+     * Notifies listeners that the translation id of a handle was written outside of a workflow.
+     */
+    public static void postLinkEvent(final Session session, final String handleId, final String translationId,
+                                     final String linkedHandleId, final String action) {
+        final HippoEventBus eventBus = HippoServiceRegistry.getService(HippoEventBus.class);
+        if (eventBus != null) {
+            eventBus.post(new TranslationLinkEvent("cms")
+                    .user(session.getUserID())
+                    .action(action)
+                    .handleId(handleId)
+                    .translationId(translationId)
+                    .linkedHandleId(linkedHandleId));
+        }
+    }
+}
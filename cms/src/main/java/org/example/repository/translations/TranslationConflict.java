@@ -0,0 +1,65 @@
+package org.example.repository.translations;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A link that would break the rule that a translation group has at most one document per locale.
+ */
+public final class TranslationConflict implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Type {
+        /** The group already contains another document in the locale of the linked document. */
+        DUPLICATE_LOCALE,
+        /** The linked document is already linked with documents in another group. */
+        OTHER_GROUP
+    }
+
+    private final Type type;
+    private final String handleId;
+    private final String locale;
+    private final String translationId;
+    private final List<String> conflictingHandleIds;
+    private final List<String> conflictingPaths;
+
+    public TranslationConflict(final Type type, final String handleId, final String locale, final String translationId,
+                               final List<String> conflictingHandleIds, final List<String> conflictingPaths) {
+        this.type = type;
+        this.handleId = handleId;
+        this.locale = locale;
+        this.translationId = translationId;
+        this.conflictingHandleIds = conflictingHandleIds;
+        this.conflictingPaths = conflictingPaths;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getHandleId() {
+        return handleId;
+    }
+
+    public String getLocale() {
+        return locale;
+    }
+
+    public String getTranslationId() {
+        return translationId;
+    }
+
+    public List<String> getConflictingHandleIds() {
+        return conflictingHandleIds;
+    }
+
+    public List<String> getConflictingPaths() {
+        return conflictingPaths;
+    }
+
+    @Override
+    public String toString() {
+        return type + " linking " + handleId + " (" + locale + ") into " + translationId + " with " + conflictingPaths;
+    }
+}
@@ -0,0 +1,448 @@
+package org.example.repository.translations;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * In-memory view on the translation state of all translated documents, kept up to date incrementally so that
+ * coverage counts and pages of documents can be served without querying the repository. The members of each
+ * translation group are kept per locale, so link conflicts are detected with a constant number of lookups.
+ */
+public class TranslationCoverageIndex implements TranslationGroupService {
+
+    public enum State {
+        UNTRANSLATED, PARTIALLY_LINKED, STALE_LINK, LINKED
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Document> documents = new HashMap<>();
+    private final Map<String, State> states = new HashMap<>();
+    private final Map<String, Map<String, Set<String>>> groups = new HashMap<>();
+    private final Map<String, Set<String>> linkedBy = new HashMap<>();
+    private final Map<String, Map<String, int[]>> counts = new HashMap<>();
+    private final Map<String, Map<State, NavigableMap<String, Document>>> documentsByState = new HashMap<>();
+
+    public void update(final Document document) {
+        lock.writeLock().lock();
+        try {
+            final Set<String> affected = new HashSet<>();
+            removeDocument(document.getHandleId(), affected);
+            addDocument(document, affected);
+            refreshStates(affected);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(final String handleId) {
+        lock.writeLock().lock();
+        try {
+            final Set<String> affected = new HashSet<>();
+            removeDocument(handleId, affected);
+            refreshStates(affected);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            states.clear();
+            groups.clear();
+            linkedBy.clear();
+            counts.clear();
+            documentsByState.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the contents of this index with those of an index that was built separately, in one step, so readers
+     * never see a partially built index. The other index must not be used afterwards.
+     */
+    public void replaceWith(final TranslationCoverageIndex other) {
+        other.lock.readLock().lock();
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            documents.putAll(other.documents);
+            states.clear();
+            states.putAll(other.states);
+            groups.clear();
+            groups.putAll(other.groups);
+            linkedBy.clear();
+            linkedBy.putAll(other.linkedBy);
+            counts.clear();
+            counts.putAll(other.counts);
+            documentsByState.clear();
+            documentsByState.putAll(other.documentsByState);
+        } finally {
+            lock.writeLock().unlock();
+            other.lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Set<String> getLocales() {
+        lock.readLock().lock();
+        try {
+            return new HashSet<>(counts.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of documents per state for a locale in a folder and all of its descendant folders.
+     */
+    public Map<State, Integer> getCounts(final String locale, final String folder) {
+        final Map<State, Integer> result = new EnumMap<>(State.class);
+        lock.readLock().lock();
+        try {
+            final int[] folderCounts = counts.getOrDefault(locale, Collections.emptyMap()).get(normalizeFolder(folder));
+            for (State state : State.values()) {
+                result.put(state, folderCounts != null ? folderCounts[state.ordinal()] : 0);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Returns the documents of a locale with the given state below a folder, ordered by path and starting after the
+     * document with the path given as cursor.
+     */
+    public Page getPage(final String locale, final String folder, final State state, final String cursor, final int limit) {
+        final String prefix = normalizeFolder(folder) + "/";
+        final String from = StringUtils.isNotEmpty(cursor) && cursor.compareTo(prefix) > 0 ? cursor : prefix;
+        final List<Document> page = new ArrayList<>();
+        String nextCursor = null;
+
+        lock.readLock().lock();
+        try {
+            final NavigableMap<String, Document> candidates = documentsByState
+                    .getOrDefault(locale, Collections.emptyMap())
+                    .get(state);
+            if (candidates != null) {
+                for (Map.Entry<String, Document> entry : candidates.tailMap(from, false).entrySet()) {
+                    if (!entry.getKey().startsWith(prefix)) {
+                        break;
+                    }
+                    if (page.size() == limit) {
+                        nextCursor = page.get(limit - 1).getPath();
+                        break;
+                    }
+                    page.add(entry.getValue());
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new Page(page, nextCursor);
+    }
+
+    public Document getDocument(final String handleId) {
+        lock.readLock().lock();
+        try {
+            return documents.get(handleId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the handle ids of the documents at or below a path, e.g. of a folder that was moved or deleted.
+     */
+    public Set<String> getHandleIds(final String path) {
+        final String folder = StringUtils.removeEnd(path, "/");
+        final Set<String> handleIds = new HashSet<>();
+        lock.readLock().lock();
+        try {
+            for (Map<State, NavigableMap<String, Document>> localeDocuments : documentsByState.values()) {
+                for (NavigableMap<String, Document> stateDocuments : localeDocuments.values()) {
+                    for (Document document : stateDocuments.subMap(folder, true, folder + "/\uffff", true).values()) {
+                        if (document.getPath().equals(folder) || document.getPath().startsWith(folder + "/")) {
+                            handleIds.add(document.getHandleId());
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return handleIds;
+    }
+
+    @Override
+    public TranslationConflict checkLink(final String handleId, final String locale, final String translationId) {
+        lock.readLock().lock();
+        try {
+            final Map<String, Set<String>> group = groups.getOrDefault(translationId, Collections.emptyMap());
+            final List<String> sameLocale = otherMembers(group.get(StringUtils.defaultString(locale)), handleId);
+            if (!sameLocale.isEmpty()) {
+                return newConflict(TranslationConflict.Type.DUPLICATE_LOCALE, handleId, locale, translationId, sameLocale);
+            }
+
+            final Document current = documents.get(handleId);
+            if (current == null || current.getTranslationId() == null || current.getTranslationId().equals(translationId)) {
+                return null;
+            }
+            final List<String> linkedWith = new ArrayList<>();
+            for (Map.Entry<String, Set<String>> members : groups.getOrDefault(current.getTranslationId(), Collections.emptyMap()).entrySet()) {
+                if (!members.getKey().equals(StringUtils.defaultString(current.getLocale()))) {
+                    linkedWith.addAll(members.getValue());
+                }
+            }
+            if (!linkedWith.isEmpty()) {
+                return newConflict(TranslationConflict.Type.OTHER_GROUP, handleId, locale, translationId, linkedWith);
+            }
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public State getState(final String handleId) {
+        lock.readLock().lock();
+        try {
+            return states.get(handleId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static List<String> otherMembers(final Set<String> members, final String handleId) {
+        final List<String> others = new ArrayList<>();
+        if (members != null) {
+            for (String member : members) {
+                if (!member.equals(handleId)) {
+                    others.add(member);
+                }
+            }
+        }
+        return others;
+    }
+
+    private TranslationConflict newConflict(final TranslationConflict.Type type, final String handleId, final String locale,
+                                            final String translationId, final List<String> conflictingHandleIds) {
+        final List<String> paths = new ArrayList<>(conflictingHandleIds.size());
+        for (String conflictingHandleId : conflictingHandleIds) {
+            paths.add(documents.get(conflictingHandleId).getPath());
+        }
+        return new TranslationConflict(type, handleId, locale, translationId, conflictingHandleIds, paths);
+    }
+
+    private void addDocument(final Document document, final Set<String> affected) {
+        documents.put(document.getHandleId(), document);
+        affected.add(document.getHandleId());
+        if (document.getTranslationId() != null) {
+            final Map<String, Set<String>> group = groups.computeIfAbsent(document.getTranslationId(), id -> new HashMap<>());
+            for (Set<String> members : group.values()) {
+                affected.addAll(members);
+            }
+            group.computeIfAbsent(StringUtils.defaultString(document.getLocale()), l -> new HashSet<>()).add(document.getHandleId());
+        }
+        if (document.getLinkedHandleId() != null) {
+            linkedBy.computeIfAbsent(document.getLinkedHandleId(), id -> new HashSet<>()).add(document.getHandleId());
+        }
+        affected.addAll(linkedBy.getOrDefault(document.getHandleId(), Collections.emptySet()));
+    }
+
+    private void removeDocument(final String handleId, final Set<String> affected) {
+        final Document existing = documents.remove(handleId);
+        if (existing == null) {
+            return;
+        }
+        setState(existing, null);
+        if (existing.getTranslationId() != null) {
+            final Map<String, Set<String>> group = groups.get(existing.getTranslationId());
+            if (group != null) {
+                final String locale = StringUtils.defaultString(existing.getLocale());
+                final Set<String> members = group.get(locale);
+                if (members != null) {
+                    members.remove(handleId);
+                    if (members.isEmpty()) {
+                        group.remove(locale);
+                    }
+                }
+                for (Set<String> remaining : group.values()) {
+                    affected.addAll(remaining);
+                }
+                if (group.isEmpty()) {
+                    groups.remove(existing.getTranslationId());
+                }
+            }
+        }
+        if (existing.getLinkedHandleId() != null) {
+            final Set<String> linking = linkedBy.get(existing.getLinkedHandleId());
+            if (linking != null) {
+                linking.remove(handleId);
+                if (linking.isEmpty()) {
+                    linkedBy.remove(existing.getLinkedHandleId());
+                }
+            }
+        }
+        affected.addAll(linkedBy.getOrDefault(handleId, Collections.emptySet()));
+    }
+
+    private void refreshStates(final Collection<String> handleIds) {
+        for (String handleId : handleIds) {
+            final Document document = documents.get(handleId);
+            if (document != null) {
+                setState(document, computeState(document));
+            }
+        }
+    }
+
+    private State computeState(final Document document) {
+        final String linkedHandleId = document.getLinkedHandleId();
+        final Document linked = linkedHandleId != null ? documents.get(linkedHandleId) : null;
+        if (linkedHandleId != null && linked == null) {
+            return State.STALE_LINK;
+        }
+        if (hasCounterpart(document)) {
+            if (linked == null || StringUtils.equals(document.getTranslationId(), linked.getTranslationId())) {
+                return State.LINKED;
+            }
+            return State.PARTIALLY_LINKED;
+        }
+        return linked == null ? State.UNTRANSLATED : State.PARTIALLY_LINKED;
+    }
+
+    private boolean hasCounterpart(final Document document) {
+        if (document.getTranslationId() == null) {
+            return false;
+        }
+        final String locale = StringUtils.defaultString(document.getLocale());
+        for (String memberLocale : groups.getOrDefault(document.getTranslationId(), Collections.emptyMap()).keySet()) {
+            if (!memberLocale.equals(locale)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void setState(final Document document, final State state) {
+        final State previous = state != null ? states.put(document.getHandleId(), state) : states.remove(document.getHandleId());
+        if (previous == state) {
+            return;
+        }
+        final String locale = StringUtils.defaultString(document.getLocale());
+        final Map<State, NavigableMap<String, Document>> localeDocuments =
+                documentsByState.computeIfAbsent(locale, l -> new EnumMap<>(State.class));
+        if (previous != null) {
+            updateCounts(locale, document.getFolder(), previous, -1);
+            localeDocuments.get(previous).remove(document.getPath());
+        }
+        if (state != null) {
+            updateCounts(locale, document.getFolder(), state, 1);
+            localeDocuments.computeIfAbsent(state, s -> new TreeMap<>()).put(document.getPath(), document);
+        }
+    }
+
+    private void updateCounts(final String locale, final String folder, final State state, final int delta) {
+        final Map<String, int[]> localeCounts = counts.computeIfAbsent(locale, l -> new HashMap<>());
+        String ancestor = folder;
+        while (!ancestor.isEmpty()) {
+            localeCounts.computeIfAbsent(ancestor, f -> new int[State.values().length])[state.ordinal()] += delta;
+            ancestor = StringUtils.substringBeforeLast(ancestor, "/");
+        }
+    }
+
+    private static String normalizeFolder(final String folder) {
+        return StringUtils.removeEnd(StringUtils.defaultIfEmpty(folder, "/content/documents"), "/");
+    }
+
+    public static final class Document {
+
+        private final String handleId;
+        private final String path;
+        private final String documentType;
+        private final String locale;
+        private final String translationId;
+        private final String linkedHandleId;
+
+        public Document(final String handleId, final String path, final String documentType, final String locale,
+                        final String translationId, final String linkedHandleId) {
+            this.handleId = handleId;
+            this.path = path;
+            this.documentType = documentType;
+            this.locale = locale;
+            this.translationId = translationId;
+            this.linkedHandleId = linkedHandleId;
+        }
+
+        public String getHandleId() {
+            return handleId;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public String getFolder() {
+            return StringUtils.substringBeforeLast(path, "/");
+        }
+
+        public String getDocumentType() {
+            return documentType;
+        }
+
+        public String getLocale() {
+            return locale;
+        }
+
+        public String getTranslationId() {
+            return translationId;
+        }
+
+        public String getLinkedHandleId() {
+            return linkedHandleId;
+        }
+    }
+
+    public static final class Page {
+
+        private final List<Document> documents;
+        private final String nextCursor;
+
+        private Page(final List<Document> documents, final String nextCursor) {
+            this.documents = documents;
+            this.nextCursor = nextCursor;
+        }
+
+        public List<Document> getDocuments() {
+            return documents;
+        }
+
+        public String getNextCursor() {
+            return nextCursor;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package org.example.repository.translations;
+
+import org.onehippo.cms7.services.SingletonService;
+
+/**
+ * Answers translation group membership questions from the maintained coverage index instead of querying the repository.
+ */
+@SingletonService
+public interface TranslationGroupService {
+
+    /**
+     * Returns the conflict that linking the handle with the given locale into the translation group would cause, or
+     * null when it can be linked.
+     */
+    TranslationConflict checkLink(String handleId, String locale, String translationId);
+
+}
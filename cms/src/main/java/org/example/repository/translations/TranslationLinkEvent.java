@@ -0,0 +1,48 @@
+package org.example.repository.translations;
+
+import org.onehippo.cms7.services.eventbus.HippoEvent;
+
+/**
+ * Posted on the event bus when translation ids are written outside of a workflow, e.g. by the link translations
+ * workflow plugin, so that listeners can refresh their view on the changed handle.
+ */
+public class TranslationLinkEvent extends HippoEvent<TranslationLinkEvent> {
+
+    public static final String CATEGORY = "translations";
+
+    private static final String HANDLE_ID = "handleId";
+    private static final String TRANSLATION_ID = "translationId";
+    private static final String LINKED_HANDLE_ID = "linkedHandleId";
+
+    public TranslationLinkEvent(final String application) {
+        super(application);
+        category(CATEGORY);
+    }
+
+    public TranslationLinkEvent handleId(final String handleId) {
+        return set(HANDLE_ID, handleId);
+    }
+
+    public String handleId() {
+        return get(HANDLE_ID);
+    }
+
+    public TranslationLinkEvent translationId(final String translationId) {
+        return set(TRANSLATION_ID, translationId);
+    }
+
+    public String translationId() {
+        return get(TRANSLATION_ID);
+    }
+
+    public TranslationLinkEvent linkedHandleId(final String linkedHandleId) {
+        return set(LINKED_HANDLE_ID, linkedHandleId);
+    }
+
+    /**
+     * The handle the changed handle was linked with, or null when it was unlinked.
+     */
+    public String linkedHandleId() {
+        return get(LINKED_HANDLE_ID);
+    }
+}
@@ -0,0 +1,81 @@
+package org.example.repository.translations;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * The Flight Recorder event that a {@link TranslationLinkTiming} is committed as. Only loaded when the JVM has the
+ * {@code jdk.jfr} API.
+ */
+@Name("org.example.translations.Link")
+@Label("Link Translations")
+@Category({"Hippo", "Translations"})
+@Description("Timing breakdown of linking a document with its translation")
+@StackTrace(false)
+public final class TranslationLinkRecord extends Event {
+
+    @Label("Operation")
+    private String operation;
+
+    @Label("Subject Id")
+    private String subjectId;
+
+    @Label("Document Type")
+    private String documentType;
+
+    @Label("Locale")
+    private String locale;
+
+    @Label("Variant Count")
+    private int variantCount;
+
+    @Label("Source Document Lookup")
+    @Description("Loading the document that is linked from and reading its translation id")
+    @Timespan(Timespan.NANOSECONDS)
+    private long sourceLookupDuration;
+
+    @Label("Handle Lookup")
+    @Timespan(Timespan.NANOSECONDS)
+    private long lookupDuration;
+
+    @Label("Get Variant")
+    @Timespan(Timespan.NANOSECONDS)
+    private long getVariantDuration;
+
+    @Label("Variant Updates")
+    @Timespan(Timespan.NANOSECONDS)
+    private long variantUpdateDuration;
+
+    @Label("Session Save")
+    @Timespan(Timespan.NANOSECONDS)
+    private long saveDuration;
+
+    static Object start() {
+        final TranslationLinkRecord record = new TranslationLinkRecord();
+        record.begin();
+        return record;
+    }
+
+    static void record(final Object event, final TranslationLinkTiming timing) {
+        final TranslationLinkRecord record = (TranslationLinkRecord) event;
+        if (!record.shouldCommit()) {
+            return;
+        }
+        record.operation = timing.getOperation();
+        record.subjectId = timing.getSubjectId();
+        record.documentType = timing.getDocumentType();
+        record.locale = timing.getLocale();
+        record.variantCount = timing.getVariantCount();
+        record.sourceLookupDuration = timing.getSourceLookupDuration();
+        record.lookupDuration = timing.getLookupDuration();
+        record.getVariantDuration = timing.getGetVariantDuration();
+        record.variantUpdateDuration = timing.getVariantUpdateDuration();
+        record.saveDuration = timing.getSaveDuration();
+        record.commit();
+    }
+}
@@ -0,0 +1,132 @@
+package org.example.repository.translations;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Time spent in each phase of linking translations, committed as the {@code org.example.translations.Link} Flight
+ * Recorder event. The event is disabled unless a recording enables it, in which case it costs a few clock reads per
+ * link. On a JVM without the {@code jdk.jfr} API, such as Java 8 before update 262, timings are collected but not
+ * recorded.
+ */
+public class TranslationLinkTiming {
+
+    private static final Logger log = LoggerFactory.getLogger(TranslationLinkTiming.class);
+
+    private static final boolean RECORDABLE = isRecordable();
+
+    private final String operation;
+    private String subjectId;
+    private String documentType;
+    private String locale;
+    private int variantCount;
+    private long sourceLookupDuration;
+    private long lookupDuration;
+    private long getVariantDuration;
+    private long variantUpdateDuration;
+    private long saveDuration;
+    private Object event;
+
+    public TranslationLinkTiming(final String operation) {
+        this.operation = operation;
+    }
+
+    public void begin() {
+        if (RECORDABLE) {
+            event = TranslationLinkRecord.start();
+        }
+    }
+
+    public void commit() {
+        if (event != null) {
+            TranslationLinkRecord.record(event, this);
+            event = null;
+        }
+    }
+
+    public void setSubjectId(final String subjectId) {
+        this.subjectId = subjectId;
+    }
+
+    public void setDocumentType(final String documentType) {
+        this.documentType = documentType;
+    }
+
+    public void setLocale(final String locale) {
+        this.locale = locale;
+    }
+
+    public void addVariants(final int count) {
+        variantCount += count;
+    }
+
+    public void addSourceLookup(final long startNanos) {
+        sourceLookupDuration += System.nanoTime() - startNanos;
+    }
+
+    public void addLookup(final long startNanos) {
+        lookupDuration += System.nanoTime() - startNanos;
+    }
+
+    public void addGetVariant(final long startNanos) {
+        getVariantDuration += System.nanoTime() - startNanos;
+    }
+
+    public void addVariantUpdate(final long startNanos) {
+        variantUpdateDuration += System.nanoTime() - startNanos;
+    }
+
+    public void addSave(final long startNanos) {
+        saveDuration += System.nanoTime() - startNanos;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public String getSubjectId() {
+        return subjectId;
+    }
+
+    public String getDocumentType() {
+        return documentType;
+    }
+
+    public String getLocale() {
+        return locale;
+    }
+
+    public int getVariantCount() {
+        return variantCount;
+    }
+
+    public long getSourceLookupDuration() {
+        return sourceLookupDuration;
+    }
+
+    public long getLookupDuration() {
+        return lookupDuration;
+    }
+
+    public long getGetVariantDuration() {
+        return getVariantDuration;
+    }
+
+    public long getVariantUpdateDuration() {
+        return variantUpdateDuration;
+    }
+
+    public long getSaveDuration() {
+        return saveDuration;
+    }
+
+    private static boolean isRecordable() {
+        try {
+            Class.forName("jdk.jfr.Event");
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            log.info("Flight Recorder API not available, translation link events are not recorded");
+            return false;
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package org.example.repository.translations;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only, ordered log of applied translation link changes for downstream consumers. Every record is one JSON
+ * line that carries its own sequence number, so consumers can tail the log from the last sequence they read.
+ * Records are buffered and written in batches, either when a batch is full or after a maximum delay; only written
+ * records are visible to readers. Records still buffered when the JVM stops without {@link #close()}, e.g. on a crash,
+ * are lost, while the link changes they describe have already been saved.
+ * <p>
+ * On open the sequence continues after the last valid record. A record that was cut off by a crash is truncated, and
+ * records that do not parse are skipped. The log has an epoch, a random id that changes whenever the log file is
+ * started anew, e.g. after it was removed or rotated; sequence numbers are only comparable within one epoch.
+ */
+public class TranslationOutbox {
+
+    private static final Logger log = LoggerFactory.getLogger(TranslationOutbox.class);
+
+    private static final String FILE_NAME = "translation-links.jsonl";
+    private static final String EPOCH_FILE_NAME = "translation-links.epoch";
+    private static final int INDEX_INTERVAL = 1000;
+    private static final String RECORD_START = "{\"sequence\":";
+    private static final Pattern SEQUENCE = Pattern.compile("^\\{\"sequence\":(\\d+),");
+
+    private final File file;
+    private final File epochFile;
+    private final int batchSize;
+    private final long maxDelayMillis;
+
+    private final List<String> pending = new ArrayList<>();
+    private final NavigableMap<Long, Long> positions = new TreeMap<>();
+    private FileOutputStream output;
+    private ScheduledExecutorService flusher;
+    private String epoch;
+    private long lastSequence;
+    private long writtenSequence;
+    private long writtenRecords;
+    private long length;
+
+    public TranslationOutbox(final File directory, final int batchSize, final long maxDelayMillis) {
+        this.file = new File(directory, FILE_NAME);
+        this.epochFile = new File(directory, EPOCH_FILE_NAME);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    public synchronized void open() throws IOException {
+        if (!file.getParentFile().isDirectory() && !file.getParentFile().mkdirs()) {
+            throw new IOException("Cannot create outbox directory " + file.getParentFile());
+        }
+        recover();
+        output = new FileOutputStream(file, true);
+        flusher = Executors.newSingleThreadScheduledExecutor();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, maxDelayMillis, maxDelayMillis, TimeUnit.MILLISECONDS);
+        log.info("opened translation outbox {} at sequence {} of epoch {}", file, lastSequence, epoch);
+    }
+
+    public synchronized void close() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+            flusher = null;
+        }
+        flushQuietly();
+        if (output != null) {
+            try {
+                output.close();
+            } catch (IOException e) {
+                log.warn("Failed to close translation outbox", e);
+            }
+            output = null;
+        }
+    }
+
+    /**
+     * Appends a link change and returns its sequence number.
+     */
+    public synchronized long append(final String action, final String translationId, final String locale,
+                                    final String handleId, final String linkedHandleId, final String user) {
+        final long sequence = ++lastSequence;
+        pending.add(RECORD_START + sequence
+                + ",\"timestamp\":" + System.currentTimeMillis()
+                + ",\"action\":" + quote(action)
+                + ",\"translationId\":" + quote(translationId)
+                + ",\"locale\":" + quote(locale)
+                + ",\"handleId\":" + quote(handleId)
+                + ",\"linkedHandleId\":" + quote(linkedHandleId)
+                + ",\"user\":" + quote(user)
+                + "}");
+        if (pending.size() >= batchSize) {
+            flushQuietly();
+        }
+        return sequence;
+    }
+
+    public synchronized long getLastSequence() {
+        return writtenSequence;
+    }
+
+    public synchronized String getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Returns at most {@code limit} written records with a sequence number greater than {@code afterSequence}.
+     */
+    public List<String> read(final long afterSequence, final int limit) throws IOException {
+        final long startPosition;
+        final long endSequence;
+        synchronized (this) {
+            final Map.Entry<Long, Long> start = positions.floorEntry(afterSequence + 1);
+            startPosition = start != null ? start.getValue() : 0;
+            endSequence = writtenSequence;
+        }
+
+        final List<String> records = new ArrayList<>();
+        if (afterSequence >= endSequence) {
+            return records;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            raf.seek(startPosition);
+            final BufferedReader reader = new BufferedReader(Channels.newReader(raf.getChannel(), StandardCharsets.UTF_8.name()));
+            String line;
+            while (records.size() < limit && (line = reader.readLine()) != null) {
+                final long sequence = getSequence(line);
+                if (sequence > endSequence) {
+                    break;
+                }
+                if (sequence > afterSequence) {
+                    records.add(line);
+                }
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Returns the sequence number of a record, or -1 when the line is not a complete record.
+     */
+    public static long getSequence(final String record) {
+        final Matcher matcher = SEQUENCE.matcher(record);
+        if (!matcher.find() || !record.endsWith("}") || record.indexOf(RECORD_START, 1) >= 0) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(matcher.group(1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private synchronized void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException e) {
+            log.error("Failed to write translation outbox records, they will be retried with the next batch", e);
+        }
+    }
+
+    private void flush() throws IOException {
+        if (pending.isEmpty() || output == null) {
+            return;
+        }
+        final StringBuilder batch = new StringBuilder();
+        for (String record : pending) {
+            batch.append(record).append('\n');
+        }
+        final byte[] bytes = batch.toString().getBytes(StandardCharsets.UTF_8);
+        try {
+            output.write(bytes);
+            output.getChannel().force(false);
+        } catch (IOException e) {
+            // do not leave part of the batch behind for the retry to append to
+            output.getChannel().truncate(length);
+            throw e;
+        }
+
+        long position = length;
+        for (String record : pending) {
+            if (writtenRecords % INDEX_INTERVAL == 0) {
+                positions.put(getSequence(record), position);
+            }
+            position += record.getBytes(StandardCharsets.UTF_8).length + 1;
+            writtenRecords++;
+            writtenSequence = getSequence(record);
+        }
+        length += bytes.length;
+        pending.clear();
+    }
+
+    private void recover() throws IOException {
+        positions.clear();
+        lastSequence = 0;
+        writtenRecords = 0;
+        length = 0;
+        if (!file.exists()) {
+            startEpoch();
+            writtenSequence = 0;
+            return;
+        }
+        epoch = epochFile.exists() ? StringUtils.trimToNull(new String(Files.readAllBytes(epochFile.toPath()), StandardCharsets.UTF_8)) : null;
+        if (epoch == null) {
+            startEpoch();
+        }
+
+        long skipped = 0;
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            final ByteArrayOutputStream line = new ByteArrayOutputStream();
+            long position = 0;
+            int b;
+            while ((b = in.read()) != -1) {
+                position++;
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+                final long sequence = getSequence(new String(line.toByteArray(), StandardCharsets.UTF_8));
+                if (sequence > lastSequence) {
+                    if (writtenRecords % INDEX_INTERVAL == 0) {
+                        positions.put(sequence, length);
+                    }
+                    writtenRecords++;
+                    lastSequence = sequence;
+                } else {
+                    skipped++;
+                }
+                length = position;
+                line.reset();
+            }
+        }
+        if (skipped > 0) {
+            log.warn("skipped {} invalid records in translation outbox {}", skipped, file);
+        }
+        if (length < file.length()) {
+            log.warn("truncating {} bytes of an incomplete record at the end of translation outbox {}", file.length() - length, file);
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(length);
+            }
+        }
+        writtenSequence = lastSequence;
+    }
+
+    private void startEpoch() throws IOException {
+        epoch = UUID.randomUUID().toString();
+        Files.write(epochFile.toPath(), epoch.getBytes(StandardCharsets.UTF_8));
+        log.info("started epoch {} of translation outbox {}", epoch, file);
+    }
+
+    /**
+     * Returns the value as JSON string; quotes, backslashes and all control characters are escaped.
+     */
+    private static String quote(final String value) {
+        if (value == null) {
+            return "null";
+        }
+        final StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    quoted.append("\\\"");
+                    break;
+                case '\\':
+                    quoted.append("\\\\");
+                    break;
+                case '\b':
+                    quoted.append("\\b");
+                    break;
+                case '\f':
+                    quoted.append("\\f");
+                    break;
+                case '\n':
+                    quoted.append("\\n");
+                    break;
+                case '\r':
+                    quoted.append("\\r");
+                    break;
+                case '\t':
+                    quoted.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
@@ -0,0 +1,364 @@
+package org.example.repository.translations;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+
+import org.apache.commons.lang.StringUtils;
+import org.hippoecm.repository.HippoStdNodeType;
+import org.hippoecm.repository.api.HippoNodeType;
+import org.hippoecm.repository.translation.HippoTranslationNodeType;
+import org.hippoecm.repository.util.JcrUtils;
+import org.hippoecm.repository.util.NodeIterable;
+
+/**
+ * Compares two locale trees and ranks the untranslated documents of one tree as likely counterparts of the
+ * untranslated documents of the other, based on mirrored paths, titles, publication dates and authors.
+ * <p>
+ * The trees are read into a {@link FolderSnapshot} first, as JCR sessions cannot be shared between threads; the
+ * snapshots are then matched in parallel per folder subtree.
+ */
+public class TranslationSuggestionEngine {
+
+    private static final String TITLE = "translationspoc:title";
+    private static final String PUBLICATION_DATE = "translationspoc:publicationdate";
+    private static final String AUTHORS = "translationspoc:authors";
+
+    private static final double PATH_WEIGHT = 0.4;
+    private static final double TITLE_WEIGHT = 0.3;
+    private static final double DATE_WEIGHT = 0.15;
+    private static final double AUTHOR_WEIGHT = 0.15;
+
+    /**
+     * Blocks with more candidates than this, like a common word or a busy publication day, do not narrow the
+     * comparison down and are left out when looking up counterparts. Mirrored paths are always used.
+     */
+    private static final int MAX_BLOCK_SIZE = 200;
+    private static final String PATH_KEY = "path:";
+
+    /**
+     * Frequent English and Dutch words, which count when scoring titles but are too common to block on.
+     */
+    private static final Set<String> STOPWORDS = new HashSet<>(Arrays.asList(
+            "the", "and", "for", "with", "from", "that", "this", "are", "was", "not", "you", "your", "our", "how",
+            "what", "why", "new", "all", "about", "into", "over",
+            "een", "het", "van", "voor", "met", "aan", "bij", "die", "dat", "deze", "ook", "niet", "wat", "hoe",
+            "zijn", "uit", "naar", "als", "nieuw", "nieuwe", "alle", "onze"));
+
+    private final ForkJoinPool pool;
+    private final int maxSuggestions;
+    private final double minConfidence;
+
+    public TranslationSuggestionEngine(final int parallelism, final int maxSuggestions, final double minConfidence) {
+        this.pool = new ForkJoinPool(Math.max(1, parallelism));
+        this.maxSuggestions = maxSuggestions;
+        this.minConfidence = minConfidence;
+    }
+
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    public static FolderSnapshot snapshot(final Node folder, final Set<String> documentTypes) throws RepositoryException {
+        return snapshot(folder, "", documentTypes);
+    }
+
+    private static FolderSnapshot snapshot(final Node folder, final String relativePath, final Set<String> documentTypes) throws RepositoryException {
+        final FolderSnapshot snapshot = new FolderSnapshot();
+        for (Node child : new NodeIterable(folder.getNodes())) {
+            if (child.isNodeType(HippoNodeType.NT_HANDLE)) {
+                final Node variant = TranslatedDocuments.getCanonicalVariant(child);
+                if (variant != null && documentTypes.contains(variant.getPrimaryNodeType().getName())) {
+                    snapshot.addDocument(Candidate.read(child, variant, relativePath + child.getName()));
+                }
+            } else if (child.isNodeType(HippoStdNodeType.NT_FOLDER)) {
+                snapshot.addFolder(snapshot(child, relativePath + child.getName() + "/", documentTypes));
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Returns the ranked suggestions per handle identifier, for the untranslated documents of both trees.
+     */
+    public Map<String, List<Suggestion>> suggest(final FolderSnapshot source, final FolderSnapshot target) {
+        final Set<String> sourceTranslationIds = new HashSet<>();
+        source.collectTranslationIds(sourceTranslationIds);
+        final Set<String> targetTranslationIds = new HashSet<>();
+        target.collectTranslationIds(targetTranslationIds);
+
+        final CandidateIndex targetIndex = new CandidateIndex();
+        target.forEachDocument(candidate -> {
+            if (!sourceTranslationIds.contains(candidate.translationId)) {
+                targetIndex.add(candidate);
+            }
+        });
+
+        final Map<String, List<Suggestion>> results = new ConcurrentHashMap<>();
+        pool.invoke(new MatchTask(source, targetIndex, targetTranslationIds, results));
+
+        final Map<String, List<Suggestion>> ranked = new HashMap<>();
+        for (Map.Entry<String, List<Suggestion>> entry : results.entrySet()) {
+            final List<Suggestion> suggestions;
+            synchronized (entry.getValue()) {
+                suggestions = new ArrayList<>(entry.getValue());
+            }
+            suggestions.sort(Comparator.comparingDouble(Suggestion::getConfidence).reversed());
+            ranked.put(entry.getKey(), Collections.unmodifiableList(
+                    new ArrayList<>(suggestions.subList(0, Math.min(maxSuggestions, suggestions.size())))));
+        }
+        return ranked;
+    }
+
+    private final class MatchTask extends RecursiveAction {
+
+        private final FolderSnapshot folder;
+        private final CandidateIndex targetIndex;
+        private final Set<String> targetTranslationIds;
+        private final Map<String, List<Suggestion>> results;
+
+        private MatchTask(final FolderSnapshot folder, final CandidateIndex targetIndex, final Set<String> targetTranslationIds,
+                          final Map<String, List<Suggestion>> results) {
+            this.folder = folder;
+            this.targetIndex = targetIndex;
+            this.targetTranslationIds = targetTranslationIds;
+            this.results = results;
+        }
+
+        @Override
+        protected void compute() {
+            final List<MatchTask> subtasks = new ArrayList<>();
+            for (FolderSnapshot subfolder : folder.folders) {
+                subtasks.add(new MatchTask(subfolder, targetIndex, targetTranslationIds, results));
+            }
+            invokeAll(subtasks);
+
+            for (Candidate candidate : folder.documents) {
+                if (!targetTranslationIds.contains(candidate.translationId)) {
+                    match(candidate);
+                }
+            }
+        }
+
+        private void match(final Candidate candidate) {
+            for (Candidate counterpart : targetIndex.block(candidate)) {
+                final double confidence = score(candidate, counterpart);
+                if (confidence >= minConfidence) {
+                    addSuggestion(candidate.handleId, new Suggestion(counterpart, confidence));
+                    addSuggestion(counterpart.handleId, new Suggestion(candidate, confidence));
+                }
+            }
+        }
+
+        private void addSuggestion(final String handleId, final Suggestion suggestion) {
+            final List<Suggestion> suggestions = results.computeIfAbsent(handleId, id -> new ArrayList<>());
+            synchronized (suggestions) {
+                suggestions.add(suggestion);
+            }
+        }
+    }
+
+    static double score(final Candidate candidate, final Candidate counterpart) {
+        double score = 0;
+        if (candidate.relativePath.equals(counterpart.relativePath)) {
+            score += PATH_WEIGHT;
+        }
+        score += TITLE_WEIGHT * jaccard(candidate.titleTokens, counterpart.titleTokens);
+        if (candidate.publicationDay != null && candidate.publicationDay.equals(counterpart.publicationDay)) {
+            score += DATE_WEIGHT;
+        }
+        score += AUTHOR_WEIGHT * jaccard(candidate.authorIds, counterpart.authorIds);
+        return score;
+    }
+
+    private static double jaccard(final Set<String> first, final Set<String> second) {
+        if (first.isEmpty() || second.isEmpty()) {
+            return 0;
+        }
+        int shared = 0;
+        for (String value : first) {
+            if (second.contains(value)) {
+                shared++;
+            }
+        }
+        return (double) shared / (first.size() + second.size() - shared);
+    }
+
+    /**
+     * Candidates of one tree grouped by document type and by the keys that make two documents worth comparing, so
+     * that a document is only scored against counterparts that share at least one of them.
+     */
+    static final class CandidateIndex {
+
+        private final Map<String, Map<String, List<Candidate>>> blocks = new HashMap<>();
+
+        void add(final Candidate candidate) {
+            for (String key : candidate.blockingKeys()) {
+                blocks.computeIfAbsent(candidate.documentType, type -> new HashMap<>())
+                        .computeIfAbsent(key, k -> new ArrayList<>())
+                        .add(candidate);
+            }
+        }
+
+        Set<Candidate> block(final Candidate candidate) {
+            final Map<String, List<Candidate>> typeBlocks = blocks.getOrDefault(candidate.documentType, Collections.emptyMap());
+            final Set<Candidate> counterparts = new HashSet<>();
+            for (String key : candidate.blockingKeys()) {
+                final List<Candidate> block = typeBlocks.getOrDefault(key, Collections.emptyList());
+                if (block.size() <= MAX_BLOCK_SIZE || key.startsWith(PATH_KEY)) {
+                    counterparts.addAll(block);
+                }
+            }
+            return counterparts;
+        }
+    }
+
+    public static final class FolderSnapshot {
+
+        private final List<Candidate> documents = new ArrayList<>();
+        private final List<FolderSnapshot> folders = new ArrayList<>();
+
+        FolderSnapshot addDocument(final Candidate candidate) {
+            documents.add(candidate);
+            return this;
+        }
+
+        FolderSnapshot addFolder(final FolderSnapshot folder) {
+            folders.add(folder);
+            return this;
+        }
+
+        private void collectTranslationIds(final Set<String> translationIds) {
+            forEachDocument(candidate -> translationIds.add(candidate.translationId));
+        }
+
+        private void forEachDocument(final Consumer<Candidate> consumer) {
+            documents.forEach(consumer);
+            for (FolderSnapshot folder : folders) {
+                folder.forEachDocument(consumer);
+            }
+        }
+    }
+
+    static final class Candidate {
+
+        private final String handleId;
+        private final String path;
+        private final String relativePath;
+        private final String documentType;
+        private final String locale;
+        private final String translationId;
+        private final String title;
+        private final Set<String> titleTokens = new HashSet<>();
+        private final Long publicationDay;
+        private final Set<String> authorIds;
+
+        Candidate(final String handleId, final String path, final String relativePath, final String documentType,
+                  final String locale, final String translationId, final String title, final Long publicationDay,
+                  final Set<String> authorIds) {
+            this.handleId = handleId;
+            this.path = path;
+            this.relativePath = relativePath;
+            this.documentType = documentType;
+            this.locale = locale;
+            this.translationId = translationId;
+            this.title = title;
+            for (String token : StringUtils.split(title.toLowerCase(), " \t-_.,:;!?'\"()")) {
+                if (token.length() > 2) {
+                    titleTokens.add(token);
+                }
+            }
+            this.publicationDay = publicationDay;
+            this.authorIds = authorIds;
+        }
+
+        private static Candidate read(final Node handle, final Node variant, final String relativePath) throws RepositoryException {
+            final Calendar publicationDate = JcrUtils.getDateProperty(variant, PUBLICATION_DATE, null);
+            final Long publicationDay = publicationDate != null
+                    ? publicationDate.toInstant().atZone(publicationDate.getTimeZone().toZoneId()).toLocalDate().toEpochDay()
+                    : null;
+            final Set<String> authorIds = new HashSet<>();
+            for (Node author : new NodeIterable(variant.getNodes(AUTHORS))) {
+                final String docbase = JcrUtils.getStringProperty(author, TranslatedDocuments.DOCBASE, null);
+                if (docbase != null) {
+                    authorIds.add(docbase);
+                }
+            }
+            return new Candidate(handle.getIdentifier(), handle.getPath(), relativePath, variant.getPrimaryNodeType().getName(),
+                    JcrUtils.getStringProperty(variant, HippoTranslationNodeType.LOCALE, null),
+                    StringUtils.defaultString(JcrUtils.getStringProperty(variant, HippoTranslationNodeType.ID, null)),
+                    JcrUtils.getStringProperty(variant, TITLE, handle.getName()), publicationDay, authorIds);
+        }
+
+        private Set<String> blockingKeys() {
+            final Set<String> keys = new HashSet<>();
+            keys.add(PATH_KEY + relativePath);
+            if (publicationDay != null) {
+                keys.add("day:" + publicationDay);
+            }
+            for (String authorId : authorIds) {
+                keys.add("author:" + authorId);
+            }
+            for (String token : titleTokens) {
+                if (!STOPWORDS.contains(token)) {
+                    keys.add("title:" + token);
+                }
+            }
+            return keys;
+        }
+    }
+
+    public static final class Suggestion implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String handleId;
+        private final String path;
+        private final String title;
+        private final String locale;
+        private final double confidence;
+
+        private Suggestion(final Candidate candidate, final double confidence) {
+            this.handleId = candidate.handleId;
+            this.path = candidate.path;
+            this.title = candidate.title;
+            this.locale = candidate.locale;
+            this.confidence = confidence;
+        }
+
+        public String getHandleId() {
+            return handleId;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public String getLocale() {
+            return locale;
+        }
+
+        public double getConfidence() {
+            return confidence;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package org.example.repository.translations;
+
+import java.util.List;
+
+import org.onehippo.cms7.services.SingletonService;
+
+/**
+ * Provides the precomputed counterpart suggestions for untranslated documents.
+ */
+@SingletonService
+public interface TranslationSuggestionService {
+
+    /**
+     * Returns the suggested counterparts in the given locale for a document handle, best match first.
+     */
+    List<TranslationSuggestionEngine.Suggestion> getSuggestions(String handleId, String locale, int limit);
+
+}
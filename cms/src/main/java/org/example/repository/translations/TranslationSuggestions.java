@@ -0,0 +1,34 @@
+package org.example.repository.translations;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Holds the last computed suggestions; a new computation replaces them all at once.
+ */
+public class TranslationSuggestions implements TranslationSuggestionService {
+
+    private volatile Map<String, List<TranslationSuggestionEngine.Suggestion>> suggestions = Collections.emptyMap();
+
+    public void replace(final Map<String, List<TranslationSuggestionEngine.Suggestion>> suggestions) {
+        this.suggestions = suggestions;
+    }
+
+    @Override
+    public List<TranslationSuggestionEngine.Suggestion> getSuggestions(final String handleId, final String locale, final int limit) {
+        final List<TranslationSuggestionEngine.Suggestion> result = new ArrayList<>();
+        for (TranslationSuggestionEngine.Suggestion suggestion : suggestions.getOrDefault(handleId, Collections.emptyList())) {
+            if (result.size() == limit) {
+                break;
+            }
+            if (locale == null || StringUtils.equals(locale, suggestion.getLocale())) {
+                result.add(suggestion);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,216 @@
+package org.example.repository.translations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.example.repository.translations.TranslationCoverageIndex.Document;
+import org.example.repository.translations.TranslationCoverageIndex.Page;
+import org.example.repository.translations.TranslationCoverageIndex.State;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TranslationCoverageIndexTest {
+
+    private static final String EN = "/content/documents/translationspoc-en";
+    private static final String NL = "/content/documents/translationspoc-nl";
+
+    private TranslationCoverageIndex index;
+
+    @Before
+    public void setUp() {
+        index = new TranslationCoverageIndex();
+    }
+
+    @Test
+    public void pagesStopAtLimitAndResumeAfterCursor() {
+        for (int i = 1; i <= 5; i++) {
+            index.update(document("en" + i, EN + "/news/doc" + i, "en", "t" + i, null));
+        }
+
+        final Page first = index.getPage("en", EN, State.UNTRANSLATED, null, 2);
+        assertEquals(Arrays.asList("en1", "en2"), handleIds(first));
+        assertEquals(EN + "/news/doc2", first.getNextCursor());
+
+        final Page second = index.getPage("en", EN, State.UNTRANSLATED, first.getNextCursor(), 2);
+        assertEquals(Arrays.asList("en3", "en4"), handleIds(second));
+
+        final Page last = index.getPage("en", EN, State.UNTRANSLATED, second.getNextCursor(), 2);
+        assertEquals(Arrays.asList("en5"), handleIds(last));
+        assertNull(last.getNextCursor());
+    }
+
+    @Test
+    public void exactlyFullPageHasNoNextCursor() {
+        index.update(document("en1", EN + "/doc1", "en", "t1", null));
+        index.update(document("en2", EN + "/doc2", "en", "t2", null));
+
+        final Page page = index.getPage("en", EN, State.UNTRANSLATED, null, 2);
+        assertEquals(2, page.getDocuments().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    public void pagesStayWithinFolder() {
+        index.update(document("en1", EN + "/news/doc", "en", "t1", null));
+        index.update(document("en2", EN + "/news-archive/doc", "en", "t2", null));
+        index.update(document("en3", EN + "/newsletter", "en", "t3", null));
+
+        assertEquals(Arrays.asList("en1"), handleIds(index.getPage("en", EN + "/news", State.UNTRANSLATED, null, 10)));
+        assertEquals(Arrays.asList("en1"), handleIds(index.getPage("en", EN + "/news/", State.UNTRANSLATED, null, 10)));
+        assertTrue(index.getPage("en", EN + "/news", State.UNTRANSLATED, EN + "/news/doc", 10).getDocuments().isEmpty());
+    }
+
+    @Test
+    public void cursorBeforeFolderStartsAtFolder() {
+        index.update(document("en1", EN + "/news/doc", "en", "t1", null));
+
+        assertEquals(Arrays.asList("en1"), handleIds(index.getPage("en", EN + "/news", State.UNTRANSLATED, "/content", 10)));
+    }
+
+    @Test
+    public void statesFollowLinks() {
+        index.update(document("en1", EN + "/doc", "en", "t1", null));
+        assertEquals(State.UNTRANSLATED, index.getState("en1"));
+
+        index.update(document("nl1", NL + "/doc", "nl", "t2", "en1"));
+        assertEquals(State.PARTIALLY_LINKED, index.getState("nl1"));
+        assertEquals(State.UNTRANSLATED, index.getState("en1"));
+
+        index.update(document("nl1", NL + "/doc", "nl", "t1", "en1"));
+        assertEquals(State.LINKED, index.getState("nl1"));
+        assertEquals(State.LINKED, index.getState("en1"));
+
+        index.remove("en1");
+        assertEquals(State.STALE_LINK, index.getState("nl1"));
+        assertNull(index.getState("en1"));
+    }
+
+    @Test
+    public void countsIncludeDescendantFoldersAndFollowStates() {
+        index.update(document("en1", EN + "/news/2020/doc", "en", "t1", null));
+        index.update(document("en2", EN + "/news/doc", "en", "t2", null));
+        index.update(document("nl1", NL + "/news/2020/doc", "nl", "t1", null));
+
+        final Map<State, Integer> counts = index.getCounts("en", EN);
+        assertEquals(Integer.valueOf(1), counts.get(State.LINKED));
+        assertEquals(Integer.valueOf(1), counts.get(State.UNTRANSLATED));
+        assertEquals(Integer.valueOf(1), index.getCounts("en", EN + "/news/2020").get(State.LINKED));
+        assertEquals(Integer.valueOf(0), index.getCounts("en", EN + "/news/2020").get(State.UNTRANSLATED));
+
+        index.remove("nl1");
+        assertEquals(Integer.valueOf(0), index.getCounts("en", EN).get(State.LINKED));
+        assertEquals(Integer.valueOf(2), index.getCounts("en", EN).get(State.UNTRANSLATED));
+    }
+
+    @Test
+    public void movedDocumentIsPagedUnderItsNewPath() {
+        index.update(document("en1", EN + "/old/doc", "en", "t1", null));
+        index.update(document("en1", EN + "/new/doc", "en", "t1", null));
+
+        assertTrue(index.getPage("en", EN + "/old", State.UNTRANSLATED, null, 10).getDocuments().isEmpty());
+        assertEquals(Arrays.asList("en1"), handleIds(index.getPage("en", EN + "/new", State.UNTRANSLATED, null, 10)));
+        assertEquals(Integer.valueOf(0), index.getCounts("en", EN + "/old").get(State.UNTRANSLATED));
+        assertEquals(Integer.valueOf(1), index.getCounts("en", EN + "/new").get(State.UNTRANSLATED));
+    }
+
+    @Test
+    public void handleIdsAtOrBelowPath() {
+        index.update(document("en1", EN + "/news/doc", "en", "t1", null));
+        index.update(document("en2", EN + "/news/2020/doc", "en", "t2", null));
+        index.update(document("en3", EN + "/newsletter", "en", "t3", null));
+        index.update(document("nl1", NL + "/news/doc", "nl", "t1", null));
+
+        assertEquals(new HashSet<>(Arrays.asList("en1", "en2")), index.getHandleIds(EN + "/news"));
+        assertEquals(new HashSet<>(Arrays.asList("en1")), index.getHandleIds(EN + "/news/doc"));
+        assertEquals(new HashSet<>(Arrays.asList("en1", "en2", "en3")), index.getHandleIds(EN));
+        assertTrue(index.getHandleIds(EN + "/news/doc/doc").isEmpty());
+    }
+
+    @Test
+    public void replacedIndexServesRebuiltContents() {
+        index.update(document("en1", EN + "/doc", "en", "t1", null));
+        final TranslationCoverageIndex rebuilt = new TranslationCoverageIndex();
+        rebuilt.update(document("en2", EN + "/other", "en", "t2", null));
+        rebuilt.update(document("nl2", NL + "/other", "nl", "t2", "en2"));
+
+        index.replaceWith(rebuilt);
+
+        assertNull(index.getState("en1"));
+        assertEquals(State.LINKED, index.getState("en2"));
+        assertEquals(Integer.valueOf(1), index.getCounts("en", EN).get(State.LINKED));
+        assertEquals(Integer.valueOf(0), index.getCounts("en", EN).get(State.UNTRANSLATED));
+        assertEquals(TranslationConflict.Type.DUPLICATE_LOCALE, index.checkLink("nl3", "nl", "t2").getType());
+    }
+
+    @Test
+    public void linkIntoGroupWithoutLocaleHasNoConflict() {
+        index.update(document("en1", EN + "/doc", "en", "t1", null));
+        index.update(document("nl1", NL + "/doc", "nl", "t2", null));
+
+        assertNull(index.checkLink("nl1", "nl", "t1"));
+    }
+
+    @Test
+    public void relinkIntoOwnGroupHasNoConflict() {
+        index.update(document("en1", EN + "/doc", "en", "t1", null));
+        index.update(document("nl1", NL + "/doc", "nl", "t1", "en1"));
+
+        assertNull(index.checkLink("nl1", "nl", "t1"));
+    }
+
+    @Test
+    public void secondDocumentOfLocaleIsDuplicateLocale() {
+        index.update(document("en1", EN + "/doc", "en", "t1", null));
+        index.update(document("nl1", NL + "/doc", "nl", "t1", "en1"));
+        index.update(document("nl2", NL + "/other", "nl", "t2", null));
+
+        final TranslationConflict conflict = index.checkLink("nl2", "nl", "t1");
+        assertEquals(TranslationConflict.Type.DUPLICATE_LOCALE, conflict.getType());
+        assertEquals("nl2", conflict.getHandleId());
+        assertEquals("t1", conflict.getTranslationId());
+        assertEquals(Arrays.asList("nl1"), conflict.getConflictingHandleIds());
+        assertEquals(Arrays.asList(NL + "/doc"), conflict.getConflictingPaths());
+    }
+
+    @Test
+    public void leavingLinkedGroupIsOtherGroup() {
+        index.update(document("en1", EN + "/doc", "en", "t1", null));
+        index.update(document("nl1", NL + "/doc", "nl", "t1", "en1"));
+        index.update(document("en2", EN + "/other", "en", "t2", null));
+
+        final TranslationConflict conflict = index.checkLink("nl1", "nl", "t2");
+        assertEquals(TranslationConflict.Type.OTHER_GROUP, conflict.getType());
+        assertEquals(Arrays.asList("en1"), conflict.getConflictingHandleIds());
+        assertEquals(Arrays.asList(EN + "/doc"), conflict.getConflictingPaths());
+    }
+
+    @Test
+    public void removedDocumentNoLongerConflicts() {
+        index.update(document("en1", EN + "/doc", "en", "t1", null));
+        index.update(document("nl1", NL + "/doc", "nl", "t1", "en1"));
+        index.update(document("nl2", NL + "/other", "nl", "t2", null));
+        index.remove("nl1");
+
+        assertNull(index.checkLink("nl2", "nl", "t1"));
+    }
+
+    private static Document document(final String handleId, final String path, final String locale,
+                                     final String translationId, final String linkedHandleId) {
+        return new Document(handleId, path, "translationspoc:blogpost", locale, translationId, linkedHandleId);
+    }
+
+    private static List<String> handleIds(final Page page) {
+        final List<String> handleIds = new ArrayList<>();
+        for (Document document : page.getDocuments()) {
+            handleIds.add(document.getHandleId());
+        }
+        return handleIds;
+    }
+}
@@ -0,0 +1,159 @@
+package org.example.repository.translations;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TranslationOutboxTest {
+
+    private File directory;
+    private TranslationOutbox outbox;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("translation-outbox-test").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        if (outbox != null) {
+            outbox.close();
+        }
+        final File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void readsFromAnySequenceAcrossIndexIntervals() throws IOException {
+        outbox = open(100);
+        append(2500);
+        outbox.close();
+        outbox = open(100);
+
+        assertEquals(2500, outbox.getLastSequence());
+        assertSequences(outbox.read(0, 3), 1, 3);
+        assertSequences(outbox.read(999, 2), 1000, 1001);
+        assertSequences(outbox.read(1000, 2), 1001, 1002);
+        assertSequences(outbox.read(1999, 1), 2000, 2000);
+        assertSequences(outbox.read(2498, 10), 2499, 2500);
+        assertTrue(outbox.read(2500, 10).isEmpty());
+        assertTrue(outbox.read(5000, 10).isEmpty());
+    }
+
+    @Test
+    public void onlyWrittenRecordsAreVisible() throws IOException {
+        outbox = open(10);
+        append(15);
+
+        assertEquals(10, outbox.getLastSequence());
+        assertSequences(outbox.read(0, 100), 1, 10);
+
+        outbox.close();
+        assertEquals(15, outbox.getLastSequence());
+        assertSequences(outbox.read(10, 100), 11, 15);
+    }
+
+    @Test
+    public void continuesSequenceAfterRestart() throws IOException {
+        outbox = open(1);
+        append(3);
+        final String epoch = outbox.getEpoch();
+        outbox.close();
+
+        outbox = open(1);
+        assertEquals(3, outbox.getLastSequence());
+        assertEquals(epoch, outbox.getEpoch());
+        assertEquals(4, outbox.append("link", "t", "en", "h", "l", "editor"));
+        assertSequences(outbox.read(2, 10), 3, 4);
+    }
+
+    @Test
+    public void truncatesIncompleteRecordOnRestart() throws IOException {
+        outbox = open(1);
+        append(3);
+        outbox.close();
+        try (FileOutputStream out = new FileOutputStream(new File(directory, "translation-links.jsonl"), true)) {
+            out.write("{\"sequence\":4,\"timestamp\":".getBytes(StandardCharsets.UTF_8));
+        }
+
+        outbox = open(1);
+        assertEquals(3, outbox.getLastSequence());
+        assertEquals(4, outbox.append("link", "t", "en", "h", "l", "editor"));
+        final List<String> records = outbox.read(0, 10);
+        assertSequences(records, 1, 4);
+        assertTrue(records.get(3).startsWith("{\"sequence\":4,\"timestamp\":") && records.get(3).endsWith("}"));
+    }
+
+    @Test
+    public void startsNewEpochWhenFileIsRemoved() throws IOException {
+        outbox = open(1);
+        append(3);
+        final String epoch = outbox.getEpoch();
+        outbox.close();
+        assertTrue(new File(directory, "translation-links.jsonl").delete());
+
+        outbox = open(1);
+        assertEquals(0, outbox.getLastSequence());
+        assertFalse(epoch.equals(outbox.getEpoch()));
+    }
+
+    @Test
+    public void escapesValues() throws IOException {
+        outbox = open(1);
+        outbox.append("link", "a\"b", "en", "c\\d", "e\nf", null);
+
+        final String record = outbox.read(0, 1).get(0);
+        assertEquals(1, TranslationOutbox.getSequence(record));
+        assertTrue(record.contains("\"translationId\":\"a\\\"b\""));
+        assertTrue(record.contains("\"handleId\":\"c\\\\d\""));
+        assertTrue(record.contains("\"linkedHandleId\":\"e\\nf\""));
+        assertTrue(record.contains("\"user\":null"));
+    }
+
+    @Test
+    public void escapesControlCharacters() throws IOException {
+        outbox = open(1);
+        outbox.append("link", "a\tb", "en", "c\u0000d", "e\u001ff", "g\bh\fi\rj");
+
+        final String record = outbox.read(0, 1).get(0);
+        assertTrue(record.contains("\"translationId\":\"a\\tb\""));
+        assertTrue(record.contains("\"handleId\":\"c\\u0000d\""));
+        assertTrue(record.contains("\"linkedHandleId\":\"e\\u001ff\""));
+        assertTrue(record.contains("\"user\":\"g\\bh\\fi\\rj\""));
+    }
+
+    private TranslationOutbox open(final int batchSize) throws IOException {
+        final TranslationOutbox opened = new TranslationOutbox(directory, batchSize, 60000);
+        opened.open();
+        return opened;
+    }
+
+    private void append(final int count) {
+        for (int i = 0; i < count; i++) {
+            outbox.append("link", "translation-" + i, "en", "handle-" + i, "linked-" + i, "editor");
+        }
+    }
+
+    private static void assertSequences(final List<String> records, final long first, final long last) {
+        assertEquals(last - first + 1, records.size());
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals(first + i, TranslationOutbox.getSequence(records.get(i)));
+        }
+    }
+}
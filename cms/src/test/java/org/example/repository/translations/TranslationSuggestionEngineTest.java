@@ -0,0 +1,141 @@
+package org.example.repository.translations;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.example.repository.translations.TranslationSuggestionEngine.Candidate;
+import org.example.repository.translations.TranslationSuggestionEngine.CandidateIndex;
+import org.example.repository.translations.TranslationSuggestionEngine.FolderSnapshot;
+import org.example.repository.translations.TranslationSuggestionEngine.Suggestion;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TranslationSuggestionEngineTest {
+
+    private static final String NEWS = "translationspoc:newsdocument";
+    private static final String EVENT = "translationspoc:eventsdocument";
+    private static final double DELTA = 0.0001;
+
+    private TranslationSuggestionEngine engine;
+
+    @Before
+    public void setUp() {
+        engine = new TranslationSuggestionEngine(2, 5, 0.3);
+    }
+
+    @After
+    public void tearDown() {
+        engine.shutdown();
+    }
+
+    @Test
+    public void scoresPathTitleDateAndAuthors() {
+        final Candidate english = candidate("en-1", "news/launch", NEWS, "Product launch today", 100L, "author-1", "author-2");
+        final Candidate dutch = candidate("nl-1", "news/launch", NEWS, "Product launch vandaag", 100L, "author-1", "author-2");
+
+        assertEquals(1.0, TranslationSuggestionEngine.score(english, english), DELTA);
+        // path 0.4, title 2 of 4 tokens 0.3 * 0.5, same day 0.15, same authors 0.15
+        assertEquals(0.85, TranslationSuggestionEngine.score(english, dutch), DELTA);
+        // title 1 of 3 tokens 0.3 / 3, one of two authors 0.15 / 2
+        assertEquals(0.175, TranslationSuggestionEngine.score(english,
+                candidate("nl-2", "news/other", NEWS, "launch", 101L, "author-2")), DELTA);
+        assertEquals(0, TranslationSuggestionEngine.score(english,
+                candidate("nl-3", "events/other", NEWS, "Agenda", null)), DELTA);
+    }
+
+    @Test
+    public void blocksOnSharedKeysOfSameDocumentType() {
+        final Candidate titled = candidate("nl-1", "news/a", NEWS, "Launch", null);
+        final Candidate dated = candidate("nl-2", "news/b", NEWS, "Other", 100L);
+        final Candidate authored = candidate("nl-3", "news/c", NEWS, "Something", null, "author-1");
+        final Candidate mirrored = candidate("nl-4", "news/launch", NEWS, "Lancering", null);
+        final Candidate otherType = candidate("nl-5", "news/launch", EVENT, "Launch", 100L, "author-1");
+        final CandidateIndex index = index(titled, dated, authored, mirrored, otherType,
+                candidate("nl-6", "news/d", NEWS, "Unrelated", 200L, "author-2"));
+
+        assertEquals(set(titled, dated, authored, mirrored),
+                index.block(candidate("en-1", "news/launch", NEWS, "Launch", 100L, "author-1")));
+    }
+
+    @Test
+    public void doesNotBlockOnStopwords() {
+        final Candidate common = candidate("nl-1", "news/a", NEWS, "Het nieuwe jaar", null);
+        final CandidateIndex index = index(common);
+
+        assertTrue(index.block(candidate("en-1", "news/b", NEWS, "Het nieuwe plan", null)).isEmpty());
+        assertEquals(set(common), index.block(candidate("en-2", "news/c", NEWS, "Jaar", null)));
+    }
+
+    @Test
+    public void skipsBlocksLargerThanMaximumExceptMirroredPaths() {
+        final CandidateIndex index = new CandidateIndex();
+        for (int i = 0; i < 201; i++) {
+            index.add(candidate("nl-" + i, "news/" + i, NEWS, "Weekly update", null));
+        }
+        for (int i = 0; i < 200; i++) {
+            index.add(candidate("nl-day-" + i, "events/" + i, NEWS, "Day " + i, 100L));
+        }
+        for (int i = 0; i < 201; i++) {
+            index.add(candidate("nl-path-" + i, "news/mirrored", EVENT, "Path " + i, null));
+        }
+
+        assertTrue(index.block(candidate("en-1", "news/x", NEWS, "Weekly", null)).isEmpty());
+        assertEquals(200, index.block(candidate("en-2", "news/y", NEWS, "Other", 100L)).size());
+        assertEquals(201, index.block(candidate("en-3", "news/mirrored", EVENT, "Other", null)).size());
+    }
+
+    @Test
+    public void suggestsOnlyUntranslatedDocuments() {
+        final FolderSnapshot english = new FolderSnapshot()
+                .addDocument(candidate("en-linked", "news/linked", "t-linked", NEWS, "Linked story", 100L))
+                .addFolder(new FolderSnapshot()
+                        .addDocument(candidate("en-open", "news/open", "t-en", NEWS, "Open story", 200L)));
+        final FolderSnapshot dutch = new FolderSnapshot()
+                .addDocument(candidate("nl-linked", "news/linked", "t-linked", NEWS, "Linked story", 100L))
+                .addFolder(new FolderSnapshot()
+                        .addDocument(candidate("nl-open", "news/open", "t-nl", NEWS, "Open story", 200L)));
+
+        final Map<String, List<Suggestion>> suggestions = engine.suggest(english, dutch);
+
+        assertEquals(new HashSet<>(Arrays.asList("en-open", "nl-open")), suggestions.keySet());
+        assertEquals("nl-open", suggestions.get("en-open").get(0).getHandleId());
+        assertEquals("en-open", suggestions.get("nl-open").get(0).getHandleId());
+        assertEquals(0.85, suggestions.get("en-open").get(0).getConfidence(), DELTA);
+        assertFalse(suggestions.containsKey("en-linked"));
+    }
+
+    private static Candidate candidate(final String handleId, final String relativePath, final String documentType,
+                                       final String title, final Long publicationDay, final String... authorIds) {
+        return candidate(handleId, relativePath, handleId, documentType, title, publicationDay, authorIds);
+    }
+
+    private static Candidate candidate(final String handleId, final String relativePath, final String translationId,
+                                       final String documentType, final String title, final Long publicationDay,
+                                       final String... authorIds) {
+        return new Candidate(handleId, "/content/documents/" + handleId, relativePath, documentType,
+                handleId.substring(0, 2), translationId, title, publicationDay, new HashSet<>(Arrays.asList(authorIds)));
+    }
+
+    private static CandidateIndex index(final Candidate... candidates) {
+        final CandidateIndex index = new CandidateIndex();
+        for (Candidate candidate : candidates) {
+            index.add(candidate);
+        }
+        return index;
+    }
+
+    private static Set<Candidate> set(final Candidate... candidates) {
+        final Set<Candidate> set = new HashSet<>();
+        Collections.addAll(set, candidates);
+        return set;
+    }
+}
@@ -0,0 +1,135 @@
+package org.example.simulator;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.apache.jackrabbit.commons.cnd.CndImporter;
+import org.example.repository.translations.TranslatedDocuments;
+import org.hippoecm.repository.HippoStdNodeType;
+import org.hippoecm.repository.api.HippoNodeType;
+import org.hippoecm.repository.translation.HippoTranslationNodeType;
+
+/**
+ * Creates an English and a Dutch translationspoc tree with a configurable number of documents per locale. Every
+ * English document has a draft that links to its Dutch counterpart, as if an editor had picked it in the editor.
+ */
+class ContentGenerator {
+
+    static final String EN_ROOT = "translationspoc";
+    static final String NL_ROOT = "translationspoc-nl";
+    static final String BLOGPOST = "translationspoc:blogpost";
+    static final String CONTENTDOCUMENT = "translationspoc:contentdocument";
+
+    private static final String CND = "/namespaces/translations-poc.cnd";
+    private static final int DOCUMENTS_PER_FOLDER = 100;
+
+    private final Session session;
+    private final Random random;
+
+    ContentGenerator(final Session session, final Random random) {
+        this.session = session;
+        this.random = random;
+    }
+
+    void registerNodeTypes() throws Exception {
+        try (Reader cnd = new InputStreamReader(getClass().getResourceAsStream(CND), StandardCharsets.UTF_8)) {
+            CndImporter.registerNodeTypes(cnd, session);
+        }
+    }
+
+    /**
+     * Creates the documents and returns the English handles that link to a Dutch counterpart.
+     */
+    List<Document> generate(final int documentsPerLocale, final double blogpostShare, final int saveBatchSize) throws RepositoryException {
+        final String rootTranslationId = UUID.randomUUID().toString();
+        final Node documents = session.getNode("/content/documents");
+        final Node enRoot = addFolder(documents, EN_ROOT, "en", rootTranslationId);
+        final Node nlRoot = addFolder(documents, NL_ROOT, "nl", rootTranslationId);
+        session.save();
+
+        final List<Document> linked = new ArrayList<>(documentsPerLocale);
+        Node enFolder = null;
+        Node nlFolder = null;
+        for (int i = 0; i < documentsPerLocale; i++) {
+            if (i % DOCUMENTS_PER_FOLDER == 0) {
+                final String folderName = "folder-" + (i / DOCUMENTS_PER_FOLDER);
+                final String folderTranslationId = UUID.randomUUID().toString();
+                enFolder = addFolder(enRoot, folderName, "en", folderTranslationId);
+                nlFolder = addFolder(nlRoot, folderName, "nl", folderTranslationId);
+            }
+            final String documentType = random.nextDouble() < blogpostShare ? BLOGPOST : CONTENTDOCUMENT;
+            final String name = "document-" + i;
+            final Node nlHandle = addDocument(nlFolder, name, documentType, "nl", UUID.randomUUID().toString(), null);
+            final Node enHandle = addDocument(enFolder, name, documentType, "en", UUID.randomUUID().toString(), nlHandle.getIdentifier());
+            linked.add(new Document(enHandle.getIdentifier(), documentType));
+            if ((i + 1) % saveBatchSize == 0) {
+                session.save();
+            }
+        }
+        session.save();
+        return linked;
+    }
+
+    private Node addFolder(final Node parent, final String name, final String locale, final String translationId) throws RepositoryException {
+        final Node folder = parent.addNode(name, HippoStdNodeType.NT_FOLDER);
+        folder.addMixin(HippoTranslationNodeType.NT_TRANSLATED);
+        folder.addMixin("mix:referenceable");
+        folder.setProperty(HippoTranslationNodeType.LOCALE, locale);
+        folder.setProperty(HippoTranslationNodeType.ID, translationId);
+        return folder;
+    }
+
+    private Node addDocument(final Node folder, final String name, final String documentType, final String locale,
+                             final String translationId, final String linkedHandleId) throws RepositoryException {
+        final Node handle = folder.addNode(name, HippoNodeType.NT_HANDLE);
+        handle.addMixin("mix:referenceable");
+        addVariant(handle, documentType, locale, translationId, HippoStdNodeType.UNPUBLISHED, null);
+        if (linkedHandleId != null) {
+            addVariant(handle, documentType, locale, translationId, HippoStdNodeType.DRAFT, linkedHandleId);
+        }
+        return handle;
+    }
+
+    private void addVariant(final Node handle, final String documentType, final String locale, final String translationId,
+                            final String state, final String linkedHandleId) throws RepositoryException {
+        final Calendar now = Calendar.getInstance();
+        final Node variant = handle.addNode(handle.getName(), documentType);
+        variant.addMixin("mix:referenceable");
+        variant.setProperty(HippoStdNodeType.HIPPOSTD_STATE, state);
+        variant.setProperty("hippostd:stateSummary", "new");
+        variant.setProperty("hippostd:holder", "editor");
+        variant.setProperty("hippostdpubwf:createdBy", "editor");
+        variant.setProperty("hippostdpubwf:creationDate", now);
+        variant.setProperty("hippostdpubwf:lastModifiedBy", "editor");
+        variant.setProperty("hippostdpubwf:lastModificationDate", now);
+        variant.setProperty(HippoNodeType.HIPPO_AVAILABILITY, new String[]{"preview"});
+        variant.setProperty(HippoTranslationNodeType.LOCALE, locale);
+        variant.setProperty(HippoTranslationNodeType.ID, translationId);
+        variant.setProperty("translationspoc:title", handle.getName() + " (" + locale + ")");
+        if (linkedHandleId != null) {
+            final Node link = variant.addNode(TranslatedDocuments.TRANSLATION_LINK, HippoNodeType.NT_MIRROR);
+            link.setProperty(HippoNodeType.HIPPO_DOCBASE, linkedHandleId);
+        }
+    }
+
+    static final class Document {
+
+        final String handleId;
+        final String documentType;
+
+        Document(final String handleId, final String documentType) {
+            this.handleId = handleId;
+            this.documentType = documentType;
+        }
+    }
+}
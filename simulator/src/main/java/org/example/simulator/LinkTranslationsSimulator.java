@@ -0,0 +1,238 @@
+package org.example.simulator;
+
+import java.io.File;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.apache.commons.io.FileUtils;
+import org.example.repository.modules.LinkTranslationsDaemonModule;
+import org.hippoecm.repository.HippoRepository;
+import org.hippoecm.repository.HippoRepositoryFactory;
+import org.onehippo.repository.events.HippoWorkflowEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Replays synthetic editor traffic against {@link LinkTranslationsDaemonModule} in an embedded repository and reports
+ * throughput, link latency percentiles and the number of session saves as JSON.
+ * <p>
+ * Events are posted to an asynchronous event bus that delivers them to the module in order on a single thread, as the
+ * repository's event bus does, so a burst queues up behind the events before it. Latency is measured from posting an
+ * event until the module has handled it, and the time spent in the module alone is reported next to it. Events on
+ * ignored document types are reported separately.
+ * <p>
+ * The traffic is shaped with system properties: {@code simulator.documents} per locale, {@code simulator.events},
+ * {@code simulator.burstSize} and {@code simulator.burstPause} (ms) for commit bursts, {@code simulator.hotDocuments}
+ * and {@code simulator.hotTraffic} for the fraction of documents that receive the given fraction of the commits,
+ * {@code simulator.blogposts} for the share of blog posts versus content documents, {@code simulator.otherEvents} for
+ * the share of events on document types the module ignores, and {@code simulator.seed}. The report is written to
+ * stdout and to {@code simulator.output} when set.
+ */
+public class LinkTranslationsSimulator {
+
+    private static final Logger log = LoggerFactory.getLogger(LinkTranslationsSimulator.class);
+
+    private static final String IGNORED_DOCUMENT_TYPE = "translationspoc:author";
+
+    private final int documents = Integer.getInteger("simulator.documents", 1000);
+    private final int events = Integer.getInteger("simulator.events", 10000);
+    private final int burstSize = Integer.getInteger("simulator.burstSize", 20);
+    private final long burstPause = Long.getLong("simulator.burstPause", 0L);
+    private final double hotDocuments = Double.parseDouble(System.getProperty("simulator.hotDocuments", "0.05"));
+    private final double hotTraffic = Double.parseDouble(System.getProperty("simulator.hotTraffic", "0.5"));
+    private final double blogposts = Double.parseDouble(System.getProperty("simulator.blogposts", "0.5"));
+    private final double otherEvents = Double.parseDouble(System.getProperty("simulator.otherEvents", "0.1"));
+    private final long seed = Long.getLong("simulator.seed", 42L);
+
+    public static void main(final String[] args) throws Exception {
+        final String report = new LinkTranslationsSimulator().run();
+        System.out.println(report);
+        final String output = System.getProperty("simulator.output");
+        if (output != null) {
+            Files.write(new File(output).toPath(), report.getBytes(StandardCharsets.UTF_8));
+        }
+        System.exit(0);
+    }
+
+    private String run() throws Exception {
+        final File storage = Files.createTempDirectory("link-translations-simulator").toFile();
+        final HippoRepository repository = HippoRepositoryFactory.getHippoRepository(storage.getAbsolutePath());
+        try {
+            final Session session = repository.login("admin", "admin".toCharArray());
+            final Random random = new Random(seed);
+
+            final ContentGenerator generator = new ContentGenerator(session, random);
+            generator.registerNodeTypes();
+            final long setupStart = System.currentTimeMillis();
+            final List<ContentGenerator.Document> linked = generator.generate(documents, blogposts, 500);
+            log.info("created {} documents per locale in {} ms", documents, System.currentTimeMillis() - setupStart);
+
+            final AtomicLong saves = new AtomicLong();
+            final LinkTranslationsDaemonModule module = new LinkTranslationsDaemonModule();
+            module.configure(createModuleConfig(session, new File(storage, "translation-outbox")));
+            module.initialize(countSaves(repository.login("admin", "admin".toCharArray()), saves));
+
+            final long[] latencies = new long[events];
+            final long[] handlerTimes = new long[events];
+            final boolean[] ignored = new boolean[events];
+            final AtomicLong failures = new AtomicLong();
+            final ExecutorService eventBus = Executors.newSingleThreadExecutor();
+            final int hotCount = Math.max(1, (int) (linked.size() * hotDocuments));
+            final long start = System.nanoTime();
+            for (int i = 0; i < events; i++) {
+                if (i > 0 && i % burstSize == 0 && burstPause > 0) {
+                    Thread.sleep(burstPause);
+                }
+                final ContentGenerator.Document document = random.nextDouble() < hotTraffic
+                        ? linked.get(random.nextInt(hotCount))
+                        : linked.get(random.nextInt(linked.size()));
+                final String documentType = random.nextDouble() < otherEvents ? IGNORED_DOCUMENT_TYPE : document.documentType;
+                ignored[i] = IGNORED_DOCUMENT_TYPE.equals(documentType);
+
+                final int index = i;
+                final HippoWorkflowEvent event = createEvent(document.handleId, documentType);
+                final long posted = System.nanoTime();
+                eventBus.execute(() -> {
+                    final long handlerStart = System.nanoTime();
+                    try {
+                        module.handleEvent(event);
+                    } catch (RepositoryException | RuntimeException e) {
+                        log.warn("failed to handle event on {}", event.subjectId(), e);
+                        failures.incrementAndGet();
+                    }
+                    final long handled = System.nanoTime();
+                    handlerTimes[index] = handled - handlerStart;
+                    latencies[index] = handled - posted;
+                });
+            }
+            eventBus.shutdown();
+            eventBus.awaitTermination(1, TimeUnit.HOURS);
+            final long elapsed = System.nanoTime() - start;
+
+            module.shutdown();
+            session.logout();
+            return report(latencies, handlerTimes, ignored, elapsed, saves.get(), failures.get());
+        } finally {
+            repository.close();
+            FileUtils.deleteQuietly(storage);
+        }
+    }
+
+    private Node createModuleConfig(final Session session, final File outboxDirectory) throws RepositoryException {
+        final Node config = session.getRootNode().addNode("simulator-moduleconfig", "nt:unstructured");
+        config.setProperty("enabled", true);
+        config.setProperty("documentType", new String[]{ContentGenerator.BLOGPOST, ContentGenerator.CONTENTDOCUMENT});
+        config.setProperty("suggestionInterval", 0L);
+        config.setProperty("outboxDirectory", outboxDirectory.getAbsolutePath());
+        session.save();
+        return config;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private HippoWorkflowEvent createEvent(final String handleId, final String documentType) {
+        final HippoWorkflowEvent event = new HippoWorkflowEvent();
+        event.user("editor");
+        event.action("commitEditableInstance");
+        event.interaction("default:default:commitEditableInstance");
+        event.workflowCategory("default");
+        event.subjectId(handleId);
+        event.documentType(documentType);
+        return event;
+    }
+
+    private static Session countSaves(final Session session, final AtomicLong saves) {
+        return (Session) Proxy.newProxyInstance(LinkTranslationsSimulator.class.getClassLoader(), new Class<?>[]{Session.class},
+                (proxy, method, args) -> {
+                    if ("save".equals(method.getName())) {
+                        saves.incrementAndGet();
+                    }
+                    try {
+                        return method.invoke(session, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private String report(final long[] latencies, final long[] handlerTimes, final boolean[] ignored, final long elapsedNanos,
+                          final long saves, final long failures) {
+        final Map<String, Object> report = new LinkedHashMap<>();
+        report.put("documentsPerLocale", documents);
+        report.put("events", events);
+        report.put("burstSize", burstSize);
+        report.put("hotDocuments", hotDocuments);
+        report.put("hotTraffic", hotTraffic);
+        report.put("durationMillis", elapsedNanos / 1000000);
+        report.put("throughputPerSecond", events * 1e9 / Math.max(1, elapsedNanos));
+        report.put("saves", saves);
+        report.put("failures", failures);
+        report.put("latencyMicros", percentiles(select(latencies, ignored, false)));
+        report.put("handlerMicros", percentiles(select(handlerTimes, ignored, false)));
+        final long[] ignoredLatencies = select(latencies, ignored, true);
+        final Map<String, Object> ignoredReport = new LinkedHashMap<>();
+        ignoredReport.put("events", ignoredLatencies.length);
+        ignoredReport.put("latencyMicros", percentiles(ignoredLatencies));
+        report.put("ignored", ignoredReport);
+        return toJson(report);
+    }
+
+    private static long[] select(final long[] values, final boolean[] ignored, final boolean selectIgnored) {
+        return IntStream.range(0, values.length)
+                .filter(i -> ignored[i] == selectIgnored)
+                .mapToLong(i -> values[i])
+                .toArray();
+    }
+
+    private static Map<String, Object> percentiles(final long[] values) {
+        final long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        final Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("p50", percentile(sorted, 0.50));
+        latency.put("p90", percentile(sorted, 0.90));
+        latency.put("p99", percentile(sorted, 0.99));
+        latency.put("p999", percentile(sorted, 0.999));
+        latency.put("max", sorted.length > 0 ? sorted[sorted.length - 1] / 1000 : 0);
+        return latency;
+    }
+
+    private static long percentile(final long[] sorted, final double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        final int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1000;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String toJson(final Map<String, Object> map) {
+        final StringBuilder json = new StringBuilder("{");
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append('"').append(entry.getKey()).append("\":");
+            if (entry.getValue() instanceof Map) {
+                json.append(toJson((Map<String, Object>) entry.getValue()));
+            } else {
+                json.append(entry.getValue());
+            }
+        }
+        return json.append('}').toString();
+    }
+}
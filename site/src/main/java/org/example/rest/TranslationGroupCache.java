@@ -0,0 +1,319 @@
+package org.example.rest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.observation.Event;
+import javax.jcr.observation.EventIterator;
+import javax.jcr.observation.EventListener;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches which documents belong to which translation group, separately for the live and the preview view. Groups are
+ * cached per mount together with the URLs of their documents on that mount.
+ * <p>
+ * Every group has a version that changes whenever the cached group may no longer match the content: when a content
+ * change touches one of its documents or a folder above them, and when the group is evicted, as changes to groups that
+ * are not cached are not tracked. A change of a translation property may also add a document to a group; its path is
+ * kept until the next lookup reads which group the document is in now, see {@link #takeChangedPaths(boolean)}. Other
+ * changes, e.g. to the content of documents outside all cached groups, leave the cache alone.
+ * <p>
+ * The epoch, the generation of a view and the versions of groups together identify what the cache serves: versions
+ * are unique within a generation, the generation only changes when a view is flushed as a whole and the epoch is
+ * random per cache instance, so none of them repeat across restarts.
+ */
+public class TranslationGroupCache {
+
+    private static final Logger log = LoggerFactory.getLogger(TranslationGroupCache.class);
+
+    private static final int PROPERTY_EVENTS = Event.PROPERTY_ADDED | Event.PROPERTY_CHANGED | Event.PROPERTY_REMOVED;
+    private static final String TRANSLATION_PROPERTY_PREFIX = "hippotranslation:";
+    private static final String AVAILABILITY_PROPERTY = "hippo:availability";
+
+    private final String epoch = UUID.randomUUID().toString();
+    private final int maxEntries;
+    private final View live;
+    private final View preview;
+    private long lastVersion;
+
+    public TranslationGroupCache(final int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.live = new View();
+        this.preview = new View();
+    }
+
+    public String getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Returns the current generation of a view, to pass when storing what was read from the repository after this
+     * call.
+     */
+    public synchronized long getGeneration(final boolean preview) {
+        return view(preview).generation;
+    }
+
+    /**
+     * Returns the current version of a group, to pass when storing the group as read from the repository after this
+     * call.
+     */
+    public synchronized long getVersion(final boolean preview, final String translationId) {
+        final Long version = view(preview).versions.get(translationId);
+        return version != null ? version : 0L;
+    }
+
+    /**
+     * Returns the translation id of a document handle, or the id itself when it was looked up as translation id.
+     */
+    public synchronized String getTranslationId(final boolean preview, final String id) {
+        return view(preview).translationIds.get(id);
+    }
+
+    public synchronized void putTranslationId(final long generation, final boolean preview, final String id, final String translationId) {
+        final View view = view(preview);
+        if (generation == view.generation) {
+            view.translationIds.put(id, translationId);
+        }
+    }
+
+    public synchronized List<Member> getGroup(final boolean preview, final String mount, final String translationId) {
+        final Map<String, List<Member>> byMount = view(preview).groups.get(translationId);
+        return byMount != null ? byMount.get(mount) : null;
+    }
+
+    public synchronized void putGroup(final long generation, final long version, final boolean preview, final String mount,
+                                      final String translationId, final List<Member> members) {
+        final View view = view(preview);
+        if (generation != view.generation || version != getVersion(preview, translationId)) {
+            return;
+        }
+        Map<String, List<Member>> byMount = view.groups.get(translationId);
+        if (byMount == null) {
+            byMount = new HashMap<>();
+            view.groups.put(translationId, byMount);
+        }
+        byMount.put(mount, Collections.unmodifiableList(members));
+        for (Member member : members) {
+            view.memberPaths.computeIfAbsent(member.getPath(), path -> new HashSet<>()).add(translationId);
+        }
+        limitVersions(view);
+    }
+
+    /**
+     * Drops a group and the ids that were looked up as its members, and gives it a new version.
+     */
+    public synchronized void invalidateGroup(final boolean preview, final String translationId) {
+        invalidate(view(preview), translationId);
+    }
+
+    /**
+     * Drops the translation id cached for a document handle or variant id.
+     */
+    public synchronized void invalidateId(final boolean preview, final String id) {
+        view(preview).translationIds.remove(id);
+    }
+
+    /**
+     * Returns and forgets the paths of nodes whose translation properties changed since the last call. The groups
+     * these nodes are in now are unknown to the cache; the caller reads them and invalidates them.
+     */
+    public synchronized List<String> takeChangedPaths(final boolean preview) {
+        final View view = view(preview);
+        final List<String> paths = new ArrayList<>(view.changedPaths);
+        view.changedPaths.clear();
+        return paths;
+    }
+
+    public synchronized void clear() {
+        flush(live);
+        flush(preview);
+    }
+
+    /**
+     * Returns the listener for the content changes in a view, to be registered with the credentials of that view.
+     */
+    public EventListener getListener(final boolean preview) {
+        return events -> onEvent(preview, events);
+    }
+
+    synchronized void onEvent(final boolean preview, final EventIterator events) {
+        final View view = view(preview);
+        while (events.hasNext()) {
+            final Event event = events.nextEvent();
+            final String path;
+            try {
+                path = event.getPath();
+            } catch (RepositoryException e) {
+                log.warn("Cannot read the path of a content change, flushing the translation group cache", e);
+                flush(view);
+                continue;
+            }
+            String nodePath = path;
+            if ((event.getType() & PROPERTY_EVENTS) != 0) {
+                final String name = path.substring(path.lastIndexOf('/') + 1);
+                if (!name.startsWith(TRANSLATION_PROPERTY_PREFIX) && !name.equals(AVAILABILITY_PROPERTY)) {
+                    continue;
+                }
+                nodePath = path.substring(0, path.lastIndexOf('/'));
+                view.changedPaths.add(nodePath);
+                if (view.changedPaths.size() > maxEntries) {
+                    flush(view);
+                    continue;
+                }
+            }
+            for (String translationId : getAffectedGroups(view, nodePath)) {
+                invalidate(view, translationId);
+            }
+        }
+    }
+
+    /**
+     * Returns the cached groups with a document at, below or above the path: a change to the document itself, to its
+     * variants or to one of its folders.
+     */
+    private static Set<String> getAffectedGroups(final View view, final String path) {
+        final Set<String> translationIds = new HashSet<>();
+        for (String ancestor = path; !ancestor.isEmpty(); ancestor = ancestor.substring(0, ancestor.lastIndexOf('/'))) {
+            final Set<String> members = view.memberPaths.get(ancestor);
+            if (members != null) {
+                translationIds.addAll(members);
+            }
+        }
+        for (Set<String> members : view.memberPaths.subMap(path + "/", path + "/\uffff").values()) {
+            translationIds.addAll(members);
+        }
+        return translationIds;
+    }
+
+    private void invalidate(final View view, final String translationId) {
+        final Map<String, List<Member>> byMount = view.groups.remove(translationId);
+        if (byMount != null) {
+            forgetMembers(view, translationId, byMount);
+        }
+        view.translationIds.values().removeIf(translationId::equals);
+        view.versions.put(translationId, ++lastVersion);
+        limitVersions(view);
+    }
+
+    /**
+     * Versions are kept for every group that changed in the current generation; when there are too many, a new
+     * generation is cheaper than keeping them.
+     */
+    private void limitVersions(final View view) {
+        if (view.versions.size() > maxEntries) {
+            flush(view);
+        }
+    }
+
+    private static void forgetMembers(final View view, final String translationId, final Map<String, List<Member>> byMount) {
+        for (List<Member> members : byMount.values()) {
+            for (Member member : members) {
+                final Set<String> translationIds = view.memberPaths.get(member.getPath());
+                if (translationIds != null && translationIds.remove(translationId) && translationIds.isEmpty()) {
+                    view.memberPaths.remove(member.getPath());
+                }
+            }
+        }
+    }
+
+    private static void flush(final View view) {
+        view.generation++;
+        view.translationIds.clear();
+        view.groups.clear();
+        view.versions.clear();
+        view.memberPaths.clear();
+        view.changedPaths.clear();
+    }
+
+    private View view(final boolean preview) {
+        return preview ? this.preview : live;
+    }
+
+    private final class View {
+
+        private final Map<String, String> translationIds = new LruMap<>(maxEntries);
+        private final Map<String, Map<String, List<Member>>> groups = new LruMap<String, Map<String, List<Member>>>(maxEntries) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Map<String, List<Member>>> eldest) {
+                if (!super.removeEldestEntry(eldest)) {
+                    return false;
+                }
+                // changes to groups that are not cached are not tracked
+                forgetMembers(View.this, eldest.getKey(), eldest.getValue());
+                versions.put(eldest.getKey(), ++lastVersion);
+                return true;
+            }
+        };
+        private final Map<String, Long> versions = new HashMap<>();
+        private final NavigableMap<String, Set<String>> memberPaths = new TreeMap<>();
+        private final Set<String> changedPaths = new LinkedHashSet<>();
+        private long generation;
+    }
+
+    public static final class Member {
+
+        private final String handleId;
+        private final String path;
+        private final String locale;
+        private final String url;
+
+        public Member(final String handleId, final String path, final String locale, final String url) {
+            this.handleId = handleId;
+            this.path = path;
+            this.locale = locale;
+            this.url = url;
+        }
+
+        public String getHandleId() {
+            return handleId;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public String getLocale() {
+            return locale;
+        }
+
+        /**
+         * Returns the URL of the document on the mount the group was cached for, or null when it has none.
+         */
+        public String getUrl() {
+            return url;
+        }
+    }
+
+    private static class LruMap<K, V> extends LinkedHashMap<K, V> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int maxEntries;
+
+        private LruMap(final int maxEntries) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
+            return size() > maxEntries;
+        }
+    }
+}
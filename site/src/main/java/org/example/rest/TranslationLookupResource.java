@@ -0,0 +1,304 @@
+package org.example.rest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.jcr.ItemNotFoundException;
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.query.Query;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+
+import org.apache.commons.lang.StringUtils;
+import org.hippoecm.hst.configuration.hosting.Mount;
+import org.hippoecm.hst.container.RequestContextProvider;
+import org.hippoecm.hst.core.linking.HstLink;
+import org.hippoecm.hst.core.request.HstRequestContext;
+import org.hippoecm.repository.api.HippoNodeType;
+import org.hippoecm.repository.translation.HippoTranslationNodeType;
+import org.hippoecm.repository.util.JcrUtils;
+import org.hippoecm.repository.util.NodeIterable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Resolves the translations of many documents in one request. Every id is either a document handle UUID or a
+ * translation id; the result holds, per requested id, the translation id and the handle, path and URL of the document
+ * in every locale. Group membership and URLs are read from the {@link TranslationGroupCache}. The response carries an
+ * ETag computed from the versions of the requested groups, so a client that sends it back in If-None-Match gets a 304
+ * without any group being resolved while none of them changed.
+ */
+@Path("/translations/")
+@Produces(MediaType.APPLICATION_JSON)
+public class TranslationLookupResource {
+
+    private static final Logger log = LoggerFactory.getLogger(TranslationLookupResource.class);
+
+    private static final String CONTENT_ROOT = "/content/documents";
+    private static final int MAX_IDS = 100;
+    private static final int QUERY_BATCH_SIZE = 25;
+
+    private final TranslationGroupCache cache;
+
+    public TranslationLookupResource(final TranslationGroupCache cache) {
+        this.cache = cache;
+    }
+
+    @GET
+    @Path("/lookup")
+    public Response lookup(@QueryParam("id") final List<String> ids, @Context final Request request) {
+        if (ids == null || ids.isEmpty() || ids.size() > MAX_IDS) {
+            throw new WebApplicationException(Response.Status.BAD_REQUEST);
+        }
+        final HstRequestContext requestContext = RequestContextProvider.get();
+        final Mount siteMount = getSiteMount(requestContext);
+        final boolean preview = requestContext.isPreview();
+        final CacheControl cacheControl = new CacheControl();
+        cacheControl.setNoCache(true);
+        try {
+            final Session session = requestContext.getSession();
+            invalidateChangedGroups(session, preview);
+            // read before resolving, so the tag never claims content newer than what was resolved
+            final long generation = cache.getGeneration(preview);
+            final Map<String, String> translationIds = resolveTranslationIds(session, preview, generation, new LinkedHashSet<>(ids));
+            final Map<String, Long> versions = new HashMap<>();
+            for (String translationId : translationIds.values()) {
+                versions.put(translationId, cache.getVersion(preview, translationId));
+            }
+
+            final EntityTag etag = new EntityTag(digest(cache.getEpoch(), generation, preview, siteMount.getIdentifier(),
+                    translationIds, versions));
+            final Response.ResponseBuilder notModified = request.evaluatePreconditions(etag);
+            if (notModified != null) {
+                return notModified.cacheControl(cacheControl).build();
+            }
+            final Map<String, Result> results = resolve(requestContext, session, siteMount, generation, translationIds, versions);
+            return Response.ok(results).tag(etag).cacheControl(cacheControl).build();
+        } catch (RepositoryException e) {
+            log.error("Failed to look up translations", e);
+            throw new WebApplicationException(e, Response.Status.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Invalidates the groups that documents with changed translation properties are in now. The groups they were in
+     * before were invalidated when the change was observed.
+     */
+    private void invalidateChangedGroups(final Session session, final boolean preview) throws RepositoryException {
+        for (String path : cache.takeChangedPaths(preview)) {
+            if (!session.nodeExists(path)) {
+                continue;
+            }
+            final Node node = session.getNode(path);
+            final String translationId = JcrUtils.getStringProperty(node, HippoTranslationNodeType.ID, null);
+            if (translationId != null) {
+                cache.invalidateGroup(preview, translationId);
+            }
+            cache.invalidateId(preview, node.getIdentifier());
+            if (node.getDepth() > 0 && node.getParent().isNodeType(HippoNodeType.NT_HANDLE)) {
+                cache.invalidateId(preview, node.getParent().getIdentifier());
+            }
+        }
+    }
+
+    private Map<String, String> resolveTranslationIds(final Session session, final boolean preview, final long generation,
+                                                      final Set<String> ids) throws RepositoryException {
+        final Map<String, String> translationIds = new LinkedHashMap<>();
+        for (String id : ids) {
+            String translationId = cache.getTranslationId(preview, id);
+            if (translationId == null) {
+                translationId = readTranslationId(session, id);
+                cache.putTranslationId(generation, preview, id, translationId);
+            }
+            translationIds.put(id, translationId);
+        }
+        return translationIds;
+    }
+
+    private Map<String, Result> resolve(final HstRequestContext requestContext, final Session session, final Mount siteMount,
+                                        final long generation, final Map<String, String> translationIds,
+                                        final Map<String, Long> versions) throws RepositoryException {
+        final boolean preview = requestContext.isPreview();
+        final String mount = siteMount.getIdentifier();
+
+        final Map<String, List<TranslationGroupCache.Member>> groups = new HashMap<>();
+        final List<String> uncached = new ArrayList<>();
+        for (String translationId : new LinkedHashSet<>(translationIds.values())) {
+            final List<TranslationGroupCache.Member> group = cache.getGroup(preview, mount, translationId);
+            if (group != null) {
+                groups.put(translationId, group);
+            } else {
+                uncached.add(translationId);
+            }
+        }
+        for (int i = 0; i < uncached.size(); i += QUERY_BATCH_SIZE) {
+            final List<String> batch = uncached.subList(i, Math.min(i + QUERY_BATCH_SIZE, uncached.size()));
+            final Map<String, List<TranslationGroupCache.Member>> loaded = readGroups(requestContext, session, siteMount, batch);
+            for (String translationId : batch) {
+                final List<TranslationGroupCache.Member> group = loaded.getOrDefault(translationId, new ArrayList<>());
+                cache.putGroup(generation, versions.get(translationId), preview, mount, translationId, group);
+                groups.put(translationId, group);
+            }
+        }
+
+        final Map<String, Result> results = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : translationIds.entrySet()) {
+            final List<TranslationGroupCache.Member> group = groups.get(entry.getValue());
+            if (group.isEmpty()) {
+                results.put(entry.getKey(), null);
+                continue;
+            }
+            final Map<String, Translation> translations = new TreeMap<>();
+            for (TranslationGroupCache.Member member : group) {
+                translations.put(member.getLocale(), new Translation(member.getHandleId(), member.getPath(), member.getUrl()));
+            }
+            results.put(entry.getKey(), new Result(entry.getValue(), translations));
+        }
+        return results;
+    }
+
+    /**
+     * Returns the translation id of the document with the given handle or variant UUID, or the id itself when no
+     * node has it as identifier.
+     */
+    private static String readTranslationId(final Session session, final String id) throws RepositoryException {
+        final Node node;
+        try {
+            node = session.getNodeByIdentifier(id);
+        } catch (ItemNotFoundException | IllegalArgumentException e) {
+            return id;
+        }
+        final Node variant = node.isNodeType(HippoNodeType.NT_HANDLE) && node.hasNode(node.getName())
+                ? node.getNode(node.getName()) : node;
+        return JcrUtils.getStringProperty(variant, HippoTranslationNodeType.ID, id);
+    }
+
+    private static Map<String, List<TranslationGroupCache.Member>> readGroups(final HstRequestContext requestContext, final Session session,
+                                                                              final Mount siteMount, final List<String> translationIds) throws RepositoryException {
+        final List<String> conditions = new ArrayList<>(translationIds.size());
+        for (String translationId : translationIds) {
+            conditions.add("@" + HippoTranslationNodeType.ID + "='" + translationId.replace("'", "''") + "'");
+        }
+        final String statement = "/jcr:root" + CONTENT_ROOT + "//element(*, " + HippoTranslationNodeType.NT_TRANSLATED + ")["
+                + StringUtils.join(conditions, " or ") + "]";
+        final Query query = session.getWorkspace().getQueryManager().createQuery(statement, Query.XPATH);
+
+        final Map<String, List<TranslationGroupCache.Member>> groups = new HashMap<>();
+        final Set<String> handleIds = new LinkedHashSet<>();
+        for (Node variant : new NodeIterable(query.execute().getNodes())) {
+            final Node handle = variant.getParent();
+            if (!handle.isNodeType(HippoNodeType.NT_HANDLE) || !handleIds.add(handle.getIdentifier())) {
+                continue;
+            }
+            final String translationId = JcrUtils.getStringProperty(variant, HippoTranslationNodeType.ID, null);
+            groups.computeIfAbsent(translationId, id -> new ArrayList<>()).add(new TranslationGroupCache.Member(
+                    handle.getIdentifier(), handle.getPath(), JcrUtils.getStringProperty(variant, HippoTranslationNodeType.LOCALE, null),
+                    createUrl(requestContext, siteMount, handle)));
+        }
+        return groups;
+    }
+
+    /**
+     * The lookup is served from a REST mount below the site mount, links point to the documents on the site mount.
+     */
+    private static Mount getSiteMount(final HstRequestContext requestContext) {
+        final Mount mount = requestContext.getResolvedMount().getMount();
+        return mount.getParent() != null ? mount.getParent() : mount;
+    }
+
+    private static String createUrl(final HstRequestContext requestContext, final Mount siteMount, final Node handle) {
+        final HstLink link = requestContext.getHstLinkCreator().create(handle, siteMount);
+        if (link == null || link.isNotFound()) {
+            return null;
+        }
+        return link.toUrlForm(requestContext, true);
+    }
+
+    private static String digest(final String epoch, final long generation, final boolean preview, final String mount,
+                                 final Map<String, String> translationIds, final Map<String, Long> versions) {
+        final StringBuilder content = new StringBuilder();
+        content.append(epoch).append('\n')
+                .append(generation).append('\n')
+                .append(preview ? "preview" : "live").append('\n')
+                .append(mount).append('\n');
+        for (Map.Entry<String, String> entry : translationIds.entrySet()) {
+            content.append(entry.getKey()).append('\t')
+                    .append(entry.getValue()).append('\t')
+                    .append(versions.get(entry.getValue())).append('\n');
+        }
+        try {
+            final byte[] hash = MessageDigest.getInstance("SHA-1").digest(content.toString().getBytes(StandardCharsets.UTF_8));
+            final StringBuilder hex = new StringBuilder();
+            for (byte b : hash) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static final class Result {
+
+        private final String translationId;
+        private final Map<String, Translation> translations;
+
+        private Result(final String translationId, final Map<String, Translation> translations) {
+            this.translationId = translationId;
+            this.translations = translations;
+        }
+
+        public String getTranslationId() {
+            return translationId;
+        }
+
+        public Map<String, Translation> getTranslations() {
+            return translations;
+        }
+    }
+
+    public static final class Translation {
+
+        private final String handleId;
+        private final String path;
+        private final String url;
+
+        private Translation(final String handleId, final String path, final String url) {
+            this.handleId = handleId;
+            this.path = path;
+            this.url = url;
+        }
+
+        public String getHandleId() {
+            return handleId;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+    }
+}
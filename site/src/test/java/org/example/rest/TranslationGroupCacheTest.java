@@ -0,0 +1,275 @@
+package org.example.rest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import javax.jcr.observation.Event;
+import javax.jcr.observation.EventIterator;
+
+import org.example.rest.TranslationGroupCache.Member;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TranslationGroupCacheTest {
+
+    private static final String MOUNT = "site";
+    private static final String EN = "/content/documents/en";
+
+    private TranslationGroupCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new TranslationGroupCache(2);
+    }
+
+    @Test
+    public void storesEntriesOfCurrentGenerationAndVersion() {
+        put(false, "t1", "h1");
+
+        assertEquals("t1", cache.getTranslationId(false, "h1"));
+        assertEquals("h1", cache.getGroup(false, MOUNT, "t1").get(0).getHandleId());
+        assertEquals("/h1", cache.getGroup(false, MOUNT, "t1").get(0).getUrl());
+    }
+
+    @Test
+    public void ignoresEntriesOfStaleGeneration() {
+        final long generation = cache.getGeneration(false);
+        cache.clear();
+        cache.putTranslationId(generation, false, "h1", "t1");
+        cache.putGroup(generation, 0, false, MOUNT, "t1", group("h1"));
+
+        assertNull(cache.getTranslationId(false, "h1"));
+        assertNull(cache.getGroup(false, MOUNT, "t1"));
+    }
+
+    @Test
+    public void ignoresGroupOfStaleVersion() {
+        final long version = cache.getVersion(false, "t1");
+        cache.invalidateGroup(false, "t1");
+        cache.putGroup(cache.getGeneration(false), version, false, MOUNT, "t1", group("h1"));
+
+        assertNull(cache.getGroup(false, MOUNT, "t1"));
+    }
+
+    @Test
+    public void clearStartsNewGeneration() {
+        final long generation = cache.getGeneration(true);
+        final String epoch = cache.getEpoch();
+        put(true, "t1", "h1");
+
+        cache.clear();
+
+        assertTrue(cache.getGeneration(true) != generation);
+        assertSame(epoch, cache.getEpoch());
+        assertNull(cache.getGroup(true, MOUNT, "t1"));
+    }
+
+    @Test
+    public void changeOfMemberInvalidatesOnlyItsGroup() {
+        put(false, "t1", "h1");
+        put(false, "t2", "h2");
+        final long version = cache.getVersion(false, "t1");
+        final long generation = cache.getGeneration(false);
+
+        cache.getListener(false).onEvent(events(event(Event.NODE_REMOVED, EN + "/h1")));
+
+        assertTrue(cache.getVersion(false, "t1") != version);
+        assertNull(cache.getGroup(false, MOUNT, "t1"));
+        assertNull(cache.getTranslationId(false, "h1"));
+        assertNotNull(cache.getGroup(false, MOUNT, "t2"));
+        assertEquals(generation, cache.getGeneration(false));
+    }
+
+    @Test
+    public void changeOfFolderInvalidatesGroupsBelowIt() {
+        put(false, "t1", "h1");
+
+        cache.getListener(false).onEvent(events(event(Event.NODE_MOVED, "/content/documents")));
+
+        assertNull(cache.getGroup(false, MOUNT, "t1"));
+    }
+
+    @Test
+    public void otherPropertiesAndUnrelatedNodesAreIgnored() {
+        put(false, "t1", "h1");
+        final long version = cache.getVersion(false, "t1");
+
+        cache.getListener(false).onEvent(events(
+                event(Event.PROPERTY_CHANGED, EN + "/h1/h1/myproject:title"),
+                event(Event.NODE_ADDED, EN + "/h2"),
+                event(Event.NODE_REMOVED, EN + "/h10")));
+
+        assertEquals(version, cache.getVersion(false, "t1"));
+        assertNotNull(cache.getGroup(false, MOUNT, "t1"));
+        assertTrue(cache.takeChangedPaths(false).isEmpty());
+    }
+
+    @Test
+    public void translationPropertyChangesAreKeptForTheNextLookup() {
+        put(false, "t1", "h1");
+
+        cache.getListener(false).onEvent(events(
+                event(Event.PROPERTY_CHANGED, EN + "/h1/h1/hippotranslation:id"),
+                event(Event.PROPERTY_ADDED, EN + "/h2/h2/hippo:availability")));
+
+        assertNull(cache.getGroup(false, MOUNT, "t1"));
+        assertEquals(Arrays.asList(EN + "/h1/h1", EN + "/h2/h2"), cache.takeChangedPaths(false));
+        assertTrue(cache.takeChangedPaths(false).isEmpty());
+    }
+
+    @Test
+    public void separatesLiveAndPreviewAndMounts() {
+        put(true, "t1", "h1");
+
+        assertNull(cache.getTranslationId(false, "h1"));
+        assertNull(cache.getGroup(false, MOUNT, "t1"));
+        assertNull(cache.getGroup(true, "other", "t1"));
+
+        cache.getListener(false).onEvent(events(event(Event.NODE_REMOVED, EN + "/h1")));
+        assertNotNull(cache.getGroup(true, MOUNT, "t1"));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedAndChangesItsVersion() {
+        put(false, "t1", "h1");
+        put(false, "t2", "h2");
+        final long version = cache.getVersion(false, "t2");
+        cache.getGroup(false, MOUNT, "t1");
+        put(false, "t3", "h3");
+
+        assertNotNull(cache.getGroup(false, MOUNT, "t1"));
+        assertNull(cache.getGroup(false, MOUNT, "t2"));
+        assertNotNull(cache.getGroup(false, MOUNT, "t3"));
+        assertTrue(cache.getVersion(false, "t2") != version);
+    }
+
+    @Test
+    public void tooManyVersionsStartNewGeneration() {
+        final long generation = cache.getGeneration(false);
+        cache.invalidateGroup(false, "t1");
+        cache.invalidateGroup(false, "t2");
+        assertEquals(generation, cache.getGeneration(false));
+
+        cache.invalidateGroup(false, "t3");
+
+        assertTrue(cache.getGeneration(false) != generation);
+        assertEquals(0, cache.getVersion(false, "t1"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void cachedGroupsCannotBeModified() {
+        put(false, "t1", "h1");
+
+        cache.getGroup(false, MOUNT, "t1").add(new Member("h2", EN + "/h2", "nl", "/h2"));
+    }
+
+    private void put(final boolean preview, final String translationId, final String... handleIds) {
+        final long generation = cache.getGeneration(preview);
+        for (String handleId : handleIds) {
+            cache.putTranslationId(generation, preview, handleId, translationId);
+        }
+        cache.putGroup(generation, cache.getVersion(preview, translationId), preview, MOUNT, translationId, group(handleIds));
+    }
+
+    private static List<Member> group(final String... handleIds) {
+        final List<Member> members = new ArrayList<>();
+        for (String handleId : handleIds) {
+            members.add(new Member(handleId, EN + "/" + handleId, "en", "/" + handleId));
+        }
+        return members;
+    }
+
+    private static Event event(final int type, final String path) {
+        return new Event() {
+            @Override
+            public int getType() {
+                return type;
+            }
+
+            @Override
+            public String getPath() {
+                return path;
+            }
+
+            @Override
+            public String getUserID() {
+                return "admin";
+            }
+
+            @Override
+            public String getIdentifier() {
+                return null;
+            }
+
+            @Override
+            public Map getInfo() {
+                return Collections.emptyMap();
+            }
+
+            @Override
+            public String getUserData() {
+                return null;
+            }
+
+            @Override
+            public long getDate() {
+                return 0;
+            }
+        };
+    }
+
+    private static EventIterator events(final Event... events) {
+        final Iterator<Event> iterator = Arrays.asList(events).iterator();
+        return new EventIterator() {
+            private long position;
+
+            @Override
+            public Event nextEvent() {
+                position++;
+                return iterator.next();
+            }
+
+            @Override
+            public void skip(final long skipNum) {
+                for (long i = 0; i < skipNum; i++) {
+                    nextEvent();
+                }
+            }
+
+            @Override
+            public long getSize() {
+                return events.length;
+            }
+
+            @Override
+            public long getPosition() {
+                return position;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Object next() {
+                return nextEvent();
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+}